@@ -2,6 +2,7 @@ plugins {
     `java-library`
     `maven-publish`
     id("publish-conventions")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -34,3 +35,12 @@ tasks.compileJava {
 tasks.javadoc {
     options.encoding = "UTF-8"
 }
+
+tasks.named<JavaCompile>("compileJmhJava") {
+    options.encoding = "UTF-8"
+}
+
+jmh {
+    jmhVersion.set("1.37") // pinned, so the results don't depend on the default version of the plugin
+    profilers.add("gc") // report the allocation rate
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures parsing the arguments of a command with 5 typed arguments. <p>
+ * {@link #lookupPerInvocation()} is the baseline which splits the command line and
+ *  looks up the parser of each argument class on every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgumentParseBenchmark {
+    private static final String LINE = "/pay \"Alice Smith\" 42 9876543210 3.5 true";
+    private static final int ARGUMENTS_START = 5;
+
+    private JKookCommand command;
+    private ArgumentParsePlan plan;
+    private final CommandLineTokenizer tokenizer = new CommandLineTokenizer("");
+    private final Map<Class<?>, Function<String, ?>> parsers = new HashMap<>();
+
+    @Setup
+    public void setup() {
+        command = new JKookCommand("pay")
+                .addArgument(String.class)
+                .addArgument(Integer.class)
+                .addArgument(Long.class)
+                .addArgument(Double.class)
+                .addArgument(Boolean.class);
+        plan = ArgumentParserRegistry.withDefaults().getPlan(command);
+        parsers.put(String.class, s -> s);
+        parsers.put(Integer.class, Integer::valueOf);
+        parsers.put(Long.class, Long::valueOf);
+        parsers.put(Double.class, Double::valueOf);
+        parsers.put(Boolean.class, Boolean::valueOf);
+        final Object[] expected = {"Alice Smith", 42, 9876543210L, 3.5, true};
+        if (!Arrays.equals(compiledPlan(), expected)) { // conformance check
+            throw new IllegalStateException("Unexpected result: " + Arrays.toString(compiledPlan()));
+        }
+    }
+
+    @Benchmark
+    public Object[] compiledPlan() {
+        return plan.parse(tokenizer.reset(LINE, ARGUMENTS_START));
+    }
+
+    @Benchmark
+    public Object[] lookupPerInvocation() {
+        final String[] tokens = LINE.substring(ARGUMENTS_START).split(" ");
+        final Object[] result = new Object[command.getArguments().size()];
+        int i = 0;
+        int token = 0;
+        for (Class<?> type : command.getArguments()) {
+            String value = tokens[token++];
+            if (value.startsWith("\"")) { // join the quoted token
+                final StringBuilder builder = new StringBuilder(value.substring(1));
+                while (!value.endsWith("\"")) {
+                    value = tokens[token++];
+                    builder.append(' ').append(value);
+                }
+                value = builder.substring(0, builder.length() - 1);
+            }
+            Function<String, ?> parser = null;
+            for (Class<?> current = type; parser == null && current != null; current = current.getSuperclass()) {
+                parser = parsers.get(current);
+            }
+            result[i++] = parser.apply(value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the command path on a batch of messages: rejecting the chat messages,
+ *  resolving the commands and subcommands, and parsing the arguments. <p>
+ * {@link #linearScan(Blackhole)} is the baseline which matches each message against all commands
+ *  by splitting the command line, like a naive {@link CommandManager} implementation. <p>
+ * Run with {@code ./gradlew jmh}, the allocation rate is reported by the gc profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(CommandWorkload.MESSAGES)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+    /**
+     * The ratio of the command lines in the message mix.
+     */
+    @Param({"0.05", "0.5"})
+    public double commandRatio;
+
+    private CommandWorkload workload;
+    private CommandIndex index;
+    private ArgumentParserRegistry registry;
+    private final CommandLineTokenizer tokenizer = new CommandLineTokenizer("");
+
+    @Setup
+    public void setup() {
+        workload = new CommandWorkload(commandRatio, 42L);
+        index = new CommandIndex(workload.commands);
+        registry = ArgumentParserRegistry.withDefaults();
+        for (JKookCommand command : workload.commands) {
+            registry.compile(command);
+        }
+        workload.verify(index, registry); // conformance check
+    }
+
+    @Benchmark
+    public void reject(Blackhole blackhole) {
+        for (String line : workload.lines) {
+            blackhole.consume(index.mayBeCommand(line));
+        }
+    }
+
+    @Benchmark
+    public void resolve(Blackhole blackhole) {
+        for (String line : workload.lines) {
+            blackhole.consume(index.resolve(line));
+        }
+    }
+
+    @Benchmark
+    public void resolveAndParse(Blackhole blackhole) {
+        for (String line : workload.lines) {
+            final CommandIndex.Match match = index.resolve(line);
+            if (match != null) {
+                blackhole.consume(registry.getPlan(match.getCommand())
+                        .parse(tokenizer.reset(line, match.getArgumentsStart())));
+            }
+        }
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (String line : workload.lines) {
+            blackhole.consume(linearResolve(line));
+        }
+    }
+
+    // The naive way: split the line, then compare the first token with every prefix and name of every command.
+    private JKookCommand linearResolve(String line) {
+        final String[] tokens = line.split(" ");
+        for (JKookCommand command : workload.commands) {
+            for (String prefix : command.getPrefixes()) {
+                if (!tokens[0].startsWith(prefix)) {
+                    continue;
+                }
+                final String name = tokens[0].substring(prefix.length());
+                if (name.equals(command.getRootName()) || command.getAliases().contains(name)) {
+                    JKookCommand result = command;
+                    for (int i = 1; i < tokens.length; i++) {
+                        JKookCommand next = null;
+                        for (JKookCommand subcommand : result.getSubcommands()) {
+                            if (subcommand.getRootName().equals(tokens[i]) || subcommand.getAliases().contains(tokens[i])) {
+                                next = subcommand;
+                                break;
+                            }
+                        }
+                        if (next == null) {
+                            break;
+                        }
+                        result = next;
+                    }
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+}
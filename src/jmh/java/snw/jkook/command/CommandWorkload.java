@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A realistic command set and message mix for the command benchmarks. <p>
+ * The command set contains 500 root commands with aliases, multiple prefixes, subcommands and typed arguments.
+ * The message mix is mostly normal chat messages, like the messages seen by a real bot. <p>
+ * {@link #verify(CommandIndex, ArgumentParserRegistry)} checks that the index and the parsers
+ *  resolve every command line of the mix to the expected command and arguments,
+ *  so an implementation can prove that it is correct before measuring it.
+ */
+final class CommandWorkload {
+    static final int COMMANDS = 500;
+    static final int MESSAGES = 4096;
+    private static final String[] PREFIXES = {"/", ".", "!"};
+    private static final String[] CHAT = {
+            "hello everyone", "anyone online?", "lol", "gg wp", "what time is the event tonight",
+            "https://www.kookapp.cn", "I think the answer is 42", "/", "..", "!!!", "好的，我知道了", "晚上好",
+            ":smile: :smile:", "(met)1234567(met) look at this", "**important** please read the pinned message"
+    };
+
+    final List<JKookCommand> commands = new ArrayList<>(COMMANDS);
+    final String[] lines = new String[MESSAGES];
+    // the expected command and arguments of each line, null for the chat messages
+    final JKookCommand[] expectedCommands = new JKookCommand[MESSAGES];
+    final Object[][] expectedArguments = new Object[MESSAGES][];
+    int commandLines;
+
+    CommandWorkload(double commandRatio, long seed) {
+        final Random random = new Random(seed);
+        final List<JKookCommand> leaves = new ArrayList<>();
+        for (int i = 0; i < COMMANDS; i++) {
+            final JKookCommand command = new JKookCommand("cmd" + i, Arrays.asList(PREFIXES))
+                    .addAlias("c" + i)
+                    .addAlias("command" + i);
+            if (i % 5 == 0) {
+                for (String name : new String[]{"add", "remove", "list"}) {
+                    final JKookCommand subcommand = new JKookCommand(name)
+                            .addAlias(name.substring(0, 1))
+                            .addArgument(String.class)
+                            .addArgument(Integer.class)
+                            .addOptionalArgument(Boolean.class, false);
+                    command.addSubcommand(subcommand);
+                    leaves.add(subcommand);
+                }
+            } else {
+                command.addArgument(String.class)
+                        .addArgument(Integer.class)
+                        .addArgument(Long.class)
+                        .addArgument(Double.class)
+                        .addArgument(Boolean.class); // 5 typed arguments
+                leaves.add(command);
+            }
+            commands.add(command);
+        }
+        for (int i = 0; i < MESSAGES; i++) {
+            if (random.nextDouble() >= commandRatio) {
+                lines[i] = CHAT[random.nextInt(CHAT.length)];
+                continue;
+            }
+            commandLines++;
+            final JKookCommand leaf = leaves.get(random.nextInt(leaves.size()));
+            final JKookCommand root = rootOf(leaf);
+            final StringBuilder line = new StringBuilder()
+                    .append(PREFIXES[random.nextInt(PREFIXES.length)])
+                    .append(random.nextBoolean() ? root.getRootName() : "c" + root.getRootName().substring(3));
+            final Object[] arguments;
+            if (leaf != root) {
+                line.append(' ').append(random.nextBoolean() ? leaf.getRootName() : leaf.getRootName().substring(0, 1));
+                final int amount = random.nextInt(10000);
+                line.append(" \"item ").append(i).append("\" ").append(amount);
+                arguments = new Object[]{"item " + i, amount, false};
+            } else {
+                final int a = random.nextInt(1000);
+                final long b = random.nextLong() >>> 20;
+                final double c = random.nextInt(100) / 4.0;
+                line.append(" user").append(i).append(' ').append(a).append(' ').append(b).append(' ').append(c).append(" true");
+                arguments = new Object[]{"user" + i, a, b, c, true};
+            }
+            lines[i] = line.toString();
+            expectedCommands[i] = leaf;
+            expectedArguments[i] = arguments;
+        }
+    }
+
+    private JKookCommand rootOf(JKookCommand leaf) {
+        for (JKookCommand command : commands) {
+            if (command == leaf || command.getSubcommands().contains(leaf)) {
+                return command;
+            }
+        }
+        throw new IllegalStateException("Unknown command " + leaf.getRootName());
+    }
+
+    /**
+     * Check that every line is resolved and parsed as expected.
+     *
+     * @throws IllegalStateException Thrown if a line is not handled correctly
+     */
+    void verify(CommandIndex index, ArgumentParserRegistry registry) {
+        final CommandLineTokenizer tokenizer = new CommandLineTokenizer("");
+        for (int i = 0; i < MESSAGES; i++) {
+            final CommandIndex.Match match = index.resolve(lines[i]);
+            if (expectedCommands[i] == null) {
+                check(match == null, i, "a chat message was resolved to a command");
+                continue;
+            }
+            check(match != null && match.getCommand() == expectedCommands[i], i, "resolved to a wrong command: " + match);
+            final Object[] arguments = registry.getPlan(match.getCommand())
+                    .parse(tokenizer.reset(lines[i], match.getArgumentsStart()));
+            check(Arrays.equals(arguments, expectedArguments[i]), i, "parsed to " + Arrays.toString(arguments));
+        }
+    }
+
+    private void check(boolean condition, int line, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Line " + line + " (" + lines[line] + "): " + message);
+        }
+    }
+}
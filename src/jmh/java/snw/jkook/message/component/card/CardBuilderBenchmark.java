@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component.card;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import snw.jkook.message.component.card.module.BaseModule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a message of 5 cards with 50 modules in total. <p>
+ * The modules are created once, so the allocation reported by the GC profiler
+ *  is the allocation of the card model and the builder.
+ * {@link #listConstructors()} is the baseline which collects the modules into lists
+ *  and uses the public constructors, which copy the lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardBuilderBenchmark {
+    private static final int CARDS = 5;
+    private static final int MODULES_PER_CARD = 10;
+
+    private final BaseModule[] modules = new BaseModule[CARDS * MODULES_PER_CARD];
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < modules.length; i++) {
+            modules[i] = CardWorkload.module(i);
+        }
+        final MultipleCardComponent expected = listConstructors();
+        // conformance check
+        if (!expected.equals(presizedBuilder()) || !expected.equals(defaultBuilder())) {
+            throw new IllegalStateException("The builders created a different message.");
+        }
+    }
+
+    @Benchmark
+    public MultipleCardComponent presizedBuilder() {
+        return build(new CardBuilder(MODULES_PER_CARD));
+    }
+
+    @Benchmark
+    public MultipleCardComponent defaultBuilder() {
+        return build(new CardBuilder());
+    }
+
+    @Benchmark
+    public MultipleCardComponent listConstructors() {
+        final List<CardComponent> cards = new ArrayList<>();
+        for (int card = 0; card < CARDS; card++) {
+            final List<BaseModule> cardModules = new ArrayList<>();
+            for (int i = 0; i < MODULES_PER_CARD; i++) {
+                cardModules.add(modules[card * MODULES_PER_CARD + i]);
+            }
+            cards.add(new CardComponent(cardModules, Size.LG, Theme.PRIMARY));
+        }
+        return new MultipleCardComponent(cards);
+    }
+
+    private MultipleCardComponent build(CardBuilder builder) {
+        for (int card = 0; card < CARDS; card++) {
+            if (card != 0) {
+                builder.newCard();
+            }
+            builder.setTheme(Theme.PRIMARY).setSize(Size.LG);
+            for (int i = 0; i < MODULES_PER_CARD; i++) {
+                builder.addModule(modules[card * MODULES_PER_CARD + i]);
+            }
+        }
+        return builder.build();
+    }
+}
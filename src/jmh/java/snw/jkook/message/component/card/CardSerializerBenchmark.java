@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component.card;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding a card with 50 modules by {@link CardSerializer}. <p>
+ * The output buffers are reused, so the allocation reported by the GC profiler
+ *  is the allocation of the serializer itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardSerializerBenchmark {
+    private MultipleCardComponent card;
+    private String json;
+    private final StringBuilder text = new StringBuilder(16384);
+    private final ByteBuffer bytes = ByteBuffer.allocate(32768);
+
+    @Setup
+    public void setup() throws IOException {
+        card = CardWorkload.card();
+        json = CardSerializer.serialize(card);
+        // conformance check
+        if (!card.equals(CardSerializer.deserialize(json))) {
+            throw new IllegalStateException("The decoded card is not equal to the encoded card: " + json);
+        }
+        encodeToByteBuffer();
+        if (!json.equals(new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8))) {
+            throw new IllegalStateException("The UTF-8 output is not equal to the text output.");
+        }
+    }
+
+    @Benchmark
+    public StringBuilder encodeToStringBuilder() throws IOException {
+        text.setLength(0);
+        CardSerializer.serialize(card, text);
+        return text;
+    }
+
+    @Benchmark
+    public ByteBuffer encodeToByteBuffer() {
+        bytes.clear();
+        CardSerializer.serialize(card, bytes);
+        return bytes;
+    }
+
+    @Benchmark
+    public MultipleCardComponent decode() {
+        return CardSerializer.deserialize(json);
+    }
+}
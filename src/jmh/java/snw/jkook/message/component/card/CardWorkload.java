@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component.card;
+
+import snw.jkook.entity.abilities.Accessory;
+import snw.jkook.message.component.card.element.BaseElement;
+import snw.jkook.message.component.card.element.ButtonElement;
+import snw.jkook.message.component.card.element.ImageElement;
+import snw.jkook.message.component.card.element.InteractElement;
+import snw.jkook.message.component.card.element.MarkdownElement;
+import snw.jkook.message.component.card.element.PlainTextElement;
+import snw.jkook.message.component.card.module.ActionGroupModule;
+import snw.jkook.message.component.card.module.BaseModule;
+import snw.jkook.message.component.card.module.ContextModule;
+import snw.jkook.message.component.card.module.CountdownModule;
+import snw.jkook.message.component.card.module.DividerModule;
+import snw.jkook.message.component.card.module.HeaderModule;
+import snw.jkook.message.component.card.module.ImageGroupModule;
+import snw.jkook.message.component.card.module.SectionModule;
+import snw.jkook.message.component.card.structure.Paragraph;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The modules used by the card benchmarks. <p>
+ * The modules are a mix of the module types seen in the real cards (e.g. a leaderboard or an announcement),
+ *  including the text which needs escaping in JSON.
+ */
+final class CardWorkload {
+    static final int MODULES_PER_CARD = 50;
+    // the countdown modules only accept the end time in the future
+    private static final long COUNTDOWN_END = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+
+    private CardWorkload() {
+    }
+
+    /**
+     * Create the module at the provided position of a card.
+     */
+    static BaseModule module(int i) {
+        switch (i % 8) {
+            case 0:
+                return new HeaderModule(new PlainTextElement("Weekly ranking #" + i));
+            case 1:
+                return new SectionModule(new MarkdownElement("**Player" + i + "** scored `" + i * 37 + "` points \"today\"\n> keep going!"));
+            case 2:
+                return new SectionModule(new PlainTextElement("玩家 " + i + " 的战绩", true),
+                        new ImageElement("https://img.kookapp.cn/assets/avatar" + i + ".png", "avatar", Size.SM, true), Accessory.Mode.LEFT);
+            case 3:
+                return new SectionModule(new Paragraph(3, Arrays.<BaseElement>asList(
+                        new MarkdownElement("**Rank**\n" + i),
+                        new MarkdownElement("**Name**\nPlayer" + i),
+                        new PlainTextElement("Score\n" + i * 37))));
+            case 4:
+                return new ActionGroupModule(Arrays.<InteractElement>asList(
+                        new ButtonElement(Theme.PRIMARY, "like:" + i, ButtonElement.EventType.RETURN_VAL, new PlainTextElement("Like")),
+                        new ButtonElement(Theme.DANGER, "https://www.kookapp.cn/" + i, ButtonElement.EventType.LINK, new PlainTextElement("Open"))));
+            case 5:
+                return new ContextModule(Arrays.<BaseElement>asList(
+                        new PlainTextElement("Updated by the bot"),
+                        new ImageElement("https://img.kookapp.cn/assets/bot.png", "bot", false)));
+            case 6:
+                return new ImageGroupModule(Arrays.asList(
+                        new ImageElement("https://img.kookapp.cn/assets/a" + i + ".png", "a", false),
+                        new ImageElement("https://img.kookapp.cn/assets/b" + i + ".png", "b", false)));
+            default:
+                return i % 16 == 7 ? DividerModule.INSTANCE : new CountdownModule(CountdownModule.Type.HOUR, COUNTDOWN_END + i * 60000L);
+        }
+    }
+
+    /**
+     * Create a card which contains {@link #MODULES_PER_CARD} modules.
+     */
+    static MultipleCardComponent card() {
+        final CardBuilder builder = new CardBuilder(MODULES_PER_CARD).setTheme(Theme.PRIMARY).setSize(Size.LG);
+        for (int i = 0; i < MODULES_PER_CARD; i++) {
+            builder.addModule(module(i));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a KMarkdown leaderboard of 2000 lines. Each line contains a bold rank,
+ *  a link with a bold name inside it, a colored score and a mention. <p>
+ * {@link #chainedReplace()} is the baseline which escapes the text by chained {@link String#replace} calls
+ *  and concatenates the results, like {@link KMarkdownHelper} did before {@link KMarkdownBuilder} was added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KMarkdownBuilderBenchmark {
+    private static final int LINES = 2000;
+
+    private final String[] names = new String[LINES];
+    private final String[] userIds = new String[LINES];
+    private final String[] urls = new String[LINES];
+    private final int[] scores = new int[LINES];
+    private final KMarkdownBuilder builder = new KMarkdownBuilder(LINES * 96);
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < LINES; i++) {
+            // some names contain the characters which must be escaped
+            names[i] = "Player" + i + (i % 10 == 0 ? " [VIP]" : "") + (i % 7 == 0 ? " *star*" : "");
+            userIds[i] = String.valueOf(1000000 + i * 7919);
+            urls[i] = "https://www.kookapp.cn/u/" + userIds[i];
+            scores[i] = (LINES - i) * 13;
+        }
+        final String expected = chainedReplace();
+        // conformance check
+        if (!expected.equals(helper()) || !expected.equals(builder())) {
+            throw new IllegalStateException("The implementations built different content.");
+        }
+    }
+
+    @Benchmark
+    public String builder() {
+        final KMarkdownBuilder builder = this.builder.reset();
+        for (int i = 0; i < LINES; i++) {
+            builder.beginBold().text("#").text(i + 1).end().text(" ")
+                    .beginHyperLink(urls[i]).bold(names[i]).end().text(" ")
+                    .beginColorText("success").text(scores[i]).text(" pts").end().text(" ")
+                    .met(userIds[i]).newLine();
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public String helper() {
+        final StringBuilder result = new StringBuilder(LINES * 96);
+        for (int i = 0; i < LINES; i++) {
+            result.append(KMarkdownHelper.bold("#" + (i + 1))).append(' ')
+                    .append(KMarkdownHelper.hyperLink(KMarkdownHelper.bold(names[i]), urls[i])).append(' ')
+                    .append(KMarkdownHelper.colorText(scores[i] + " pts", "success")).append(' ')
+                    .append(KMarkdownHelper.met(userIds[i])).append('\n');
+        }
+        return result.toString();
+    }
+
+    @Benchmark
+    public String chainedReplace() {
+        final StringBuilder lines = new StringBuilder(LINES * 96);
+        for (int i = 0; i < LINES; i++) {
+            final String line = "**" + ("#" + (i + 1)).replace("*", "\\*") + "**" + " "
+                    + "[" + ("**" + names[i].replace("*", "\\*") + "**").replace("[", "\\[").replace("]", "\\]") + "]"
+                    + "(" + urls[i].replace("(", "\\(").replace(")", "\\)") + ")" + " "
+                    + "(font)" + (scores[i] + " pts").replace("(", "\\(").replace(")", "\\)") + "(font)" + "[" + "success" + "]" + " "
+                    + "(met)" + userIds[i] + "(met)" + "\n";
+            lines.append(line);
+        }
+        return lines.toString();
+    }
+}
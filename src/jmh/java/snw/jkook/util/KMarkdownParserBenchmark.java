@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures extracting the plain text and the mentions from a large KMarkdown message (about 100 KB). <p>
+ * {@link #regexPlainText()} and {@link #regexMentions()} are the baselines which use one regex pass per syntax.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KMarkdownParserBenchmark {
+    private static final int BLOCKS = 800;
+    private static final Pattern MENTION = Pattern.compile("\\((met|rol|chn)\\)(.*?)\\(\\1\\)");
+    private static final Pattern GUILD_EMOJI = Pattern.compile("\\(emj\\)(.*?)\\(emj\\)\\[[^\\]]*]");
+    // a digit-only name followed by ":digit" is a part of a time, such as "12:30:45"
+    private static final Pattern EMOJI = Pattern.compile("(?<![A-Za-z0-9_+-]):([0-9]+:(?![0-9])|[A-Za-z0-9_+-]*[A-Za-z_+-][A-Za-z0-9_+-]*:)");
+    private static final Pattern LINK = Pattern.compile("\\[([^\\]]*)]\\([^)]*\\)");
+    private static final Pattern STYLE = Pattern.compile("\\*\\*|~~|`|\\(ins\\)|\\(spl\\)");
+
+    private String content;
+    private final MentionCollector mentions = new MentionCollector();
+
+    @Setup
+    public void setup() {
+        final StringBuilder builder = new StringBuilder(BLOCKS * 128);
+        for (int i = 0; i < BLOCKS; i++) {
+            builder.append("**Announcement ").append(i).append("** hello (met)").append(1000000 + i).append("(met) and (rol)")
+                    .append(i % 16).append("(rol), read [the rules](https://www.kookapp.cn/rules/").append(i)
+                    .append(") in (chn)").append(2000000 + i).append("(chn) :smile: :100: (emj)party(emj)[1234/abcd] ")
+                    .append("~~old~~ `code` (ins)new(ins) at 12:30:45\n");
+        }
+        content = builder.toString();
+        // conformance check
+        if (!regexPlainText().equals(plainText().toString())) {
+            throw new IllegalStateException("The parser extracted different plain text.");
+        }
+        final List<String> expected = regexMentions();
+        final List<String> actual = new ArrayList<>(expected.size());
+        KMarkdownParser.parse(content, new KMarkdownParser.Visitor() {
+            @Override
+            public void mention(KMarkdownParser.MentionType type, CharSequence source, int start, int end) {
+                actual.add(source.subSequence(start, end).toString());
+            }
+        });
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("The parser found different mentions.");
+        }
+    }
+
+    @Benchmark
+    public CharSequence plainText() {
+        return KMarkdownParser.plainText(content);
+    }
+
+    @Benchmark
+    public int mentions() {
+        mentions.count = 0;
+        KMarkdownParser.parse(content, mentions);
+        return mentions.count;
+    }
+
+    @Benchmark
+    public String regexPlainText() {
+        String result = MENTION.matcher(content).replaceAll("");
+        result = GUILD_EMOJI.matcher(result).replaceAll("");
+        result = EMOJI.matcher(result).replaceAll("");
+        result = LINK.matcher(result).replaceAll("$1");
+        return STYLE.matcher(result).replaceAll("");
+    }
+
+    @Benchmark
+    public List<String> regexMentions() {
+        final List<String> result = new ArrayList<>();
+        final Matcher matcher = MENTION.matcher(content);
+        while (matcher.find()) {
+            result.add(matcher.group(2));
+        }
+        return result;
+    }
+
+    // Counts the mentions without copying them, like an indexer which only needs the ranges.
+    private static final class MentionCollector implements KMarkdownParser.Visitor {
+        private int count;
+
+        @Override
+        public void mention(KMarkdownParser.MentionType type, CharSequence source, int start, int end) {
+            count++;
+        }
+    }
+}
@@ -30,7 +30,18 @@ import snw.jkook.message.PrivateMessage;
 import snw.jkook.message.TextChannelMessage;
 import snw.jkook.util.PageIterator;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.NoSuchElementException;
 import java.util.function.Supplier;
@@ -118,6 +129,79 @@ public interface HttpAPI {
      */
     String uploadFile(String filename, String url);
 
+    /**
+     * Upload a file to Kook server. <p>
+     * The content is read from the channel and written to the request body in chunks,
+     *  so the whole file won't be held in memory.
+     * If the channel is a {@link FileChannel}, the implementation should transfer the content
+     *  using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)} where possible. <p>
+     * The channel won't be closed by this method. <p>
+     * The default implementation reads the whole content into memory
+     *  and calls {@link #uploadFile(String, byte[])}, the implementations should override it to stream the content.
+     *
+     * @param filename The name of the file (with the extension name)
+     * @param content The channel which provides the content of the file
+     * @param length The length of the content in bytes, or <code>-1</code> if it is unknown
+     * @return The URL string of the remote file
+     * @throws UncheckedIOException Thrown if the channel cannot be read
+     */
+    default String uploadFile(String filename, ReadableByteChannel content, long length) throws UncheckedIOException {
+        final int initialSize = length >= 0 && length < Integer.MAX_VALUE - 8 ? (int) length : 8192;
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(initialSize);
+        final ByteBuffer chunk = ByteBuffer.allocate(8192);
+        try {
+            while (content.read(chunk) != -1) {
+                buffer.write(chunk.array(), 0, chunk.position());
+                chunk.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return uploadFile(filename, buffer.toByteArray());
+    }
+
+    /**
+     * Upload a file to Kook server. <p>
+     * The content is read from the stream while the request is being sent,
+     *  so the whole file won't be held in memory. The stream won't be closed by this method. <p>
+     * If the stream is a {@link FileInputStream}, its channel is used, so the content can be transferred from disk.
+     *
+     * @param filename The name of the file (with the extension name)
+     * @param content The stream which provides the content of the file
+     * @return The URL string of the remote file
+     * @throws UncheckedIOException Thrown if the stream cannot be read
+     * @see #uploadFile(String, ReadableByteChannel, long)
+     */
+    default String uploadFile(String filename, InputStream content) throws UncheckedIOException {
+        if (content instanceof FileInputStream) { // use the file channel, so the content can be transferred from disk
+            final FileChannel channel = ((FileInputStream) content).getChannel();
+            try {
+                return uploadFile(filename, channel, channel.size() - channel.position());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return uploadFile(filename, Channels.newChannel(content), -1);
+    }
+
+    /**
+     * Upload a file to Kook server. <p>
+     * The file is transferred from disk while the request is being sent,
+     *  so the whole file won't be held in memory.
+     *
+     * @param path The path of the file to upload
+     * @return The URL string of the remote file
+     * @throws UncheckedIOException Thrown if the file cannot be read
+     * @see #uploadFile(String, ReadableByteChannel, long)
+     */
+    default String uploadFile(Path path) throws UncheckedIOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return uploadFile(String.valueOf(path.getFileName()), channel, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Mark the invitation that represented by the provided url code as invalid.
      *
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import snw.jkook.entity.User;
+import snw.jkook.message.Message;
+import snw.jkook.util.Validate;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the methods marked by {@link Command} and {@link Subcommand} to {@link JKookCommand} objects. <p>
+ * The methods are scanned only once, and each method is compiled to a {@link MethodHandle}
+ *  which accepts the sender, the message and the arguments directly,
+ *  so no reflection is used when the commands are executed. <p>
+ * Example:
+ * <blockquote><pre>
+ * {@code
+ *     public class MyCommands {
+ *         @Command(value = "money", description = "Show your money.")
+ *         public void money(User sender, Message message) { ... }
+ *
+ *         @Subcommand(value = "pay", parent = "money")
+ *         public void pay(User sender, User target, int amount, @Arg(optional = true) String reason) { ... }
+ *     }
+ *
+ *     getCore().getCommandManager().registerCommands(this, new MyCommands());
+ * }
+ * </pre></blockquote>
+ */
+public final class AnnotatedCommands {
+
+    private AnnotatedCommands() {
+    }
+
+    /**
+     * Compile the annotated methods of the provided object. <p>
+     * If the provided object is a {@link Class}, its static methods are compiled.
+     * The default values of the optional arguments are parsed by the default parsers
+     *  (see {@link ArgumentParserRegistry#withDefaults()}).
+     *
+     * @param holder The object which declares the annotated methods
+     * @return The root commands, their subcommands are added to them
+     * @throws IllegalArgumentException Thrown if an annotated method is not valid
+     */
+    public static List<JKookCommand> compile(Object holder) throws IllegalArgumentException {
+        return compile(holder, ArgumentParserRegistry.withDefaults());
+    }
+
+    /**
+     * Compile the annotated methods of the provided object. <p>
+     * If the provided object is a {@link Class}, its static methods are compiled.
+     * The default values of the optional arguments are parsed by the parsers registered in the provided registry,
+     *  so the arguments of the custom types can have default values too.
+     *
+     * @param holder   The object which declares the annotated methods
+     * @param registry The registry which provides the parsers for the default values
+     * @return The root commands, their subcommands are added to them
+     * @throws IllegalArgumentException Thrown if an annotated method is not valid
+     */
+    public static List<JKookCommand> compile(Object holder, ArgumentParserRegistry registry) throws IllegalArgumentException {
+        Validate.notNull(holder);
+        Validate.notNull(registry);
+        final boolean statics = holder instanceof Class;
+        final Class<?> type = statics ? (Class<?>) holder : holder.getClass();
+        final List<JKookCommand> roots = new ArrayList<>();
+        final Map<String, JKookCommand> paths = new HashMap<>();
+        final List<Method> subcommands = new ArrayList<>();
+        for (Method method : type.getDeclaredMethods()) {
+            final Command command = method.getAnnotation(Command.class);
+            final Subcommand subcommand = method.getAnnotation(Subcommand.class);
+            if (command == null && subcommand == null) {
+                continue;
+            }
+            Validate.isFalse(command != null && subcommand != null, "Method " + method.getName() + " cannot be both command and subcommand.");
+            Validate.isTrue(statics == Modifier.isStatic(method.getModifiers()),
+                    "Method " + method.getName() + (statics ? " must be static." : " must not be static."));
+            if (command == null) {
+                subcommands.add(method);
+                continue;
+            }
+            final JKookCommand result = new JKookCommand(command.value(), Arrays.asList(command.prefixes()));
+            for (String alias : command.aliases()) {
+                result.addAlias(alias);
+            }
+            describe(result, command.description(), command.helpContent());
+            bind(result, method, statics ? null : holder, registry);
+            Validate.isTrue(paths.put(command.value(), result) == null, "Duplicated command: " + command.value());
+            roots.add(result);
+        }
+        // the parents must be compiled before their children
+        subcommands.sort(Comparator.comparingInt(method -> parentPath(method).length));
+        for (Method method : subcommands) {
+            final Subcommand subcommand = method.getAnnotation(Subcommand.class);
+            final String parentPath = String.join(" ", parentPath(method));
+            final JKookCommand parent = paths.get(parentPath);
+            Validate.notNull(parent, "The parent command '" + parentPath + "' of method " + method.getName() + " was not found.");
+            final JKookCommand result = new JKookCommand(subcommand.value());
+            for (String alias : subcommand.aliases()) {
+                result.addAlias(alias);
+            }
+            describe(result, subcommand.description(), subcommand.helpContent());
+            bind(result, method, statics ? null : holder, registry);
+            parent.addSubcommand(result);
+            paths.put(parentPath + " " + subcommand.value(), result);
+        }
+        return roots;
+    }
+
+    // Split the parent path of the subcommand, the extra spaces are ignored.
+    private static String[] parentPath(Method method) {
+        return method.getAnnotation(Subcommand.class).parent().trim().split(" +");
+    }
+
+    private static void describe(JKookCommand command, String description, String helpContent) {
+        if (!description.isEmpty()) {
+            command.setDescription(description);
+        }
+        if (!helpContent.isEmpty()) {
+            command.setHelpContent(helpContent);
+        }
+    }
+
+    // Declare the arguments of the command, and set the executor which calls the method.
+    private static void bind(JKookCommand command, Method method, Object holder, ArgumentParserRegistry registry) {
+        final Parameter[] parameters = method.getParameters();
+        final int[] reorder = new int[parameters.length]; // the positions in (sender, message, arguments...)
+        Class<?> senderType = null;
+        boolean hasMessage = false;
+        int argumentCount = 0;
+        for (int i = 0; i < parameters.length; i++) {
+            final Class<?> type = parameters[i].getType();
+            if (senderType == null && !hasMessage && argumentCount == 0 && isSenderType(type)) {
+                senderType = type;
+                reorder[i] = 0;
+            } else if (!hasMessage && argumentCount == 0 && Message.class.isAssignableFrom(type)) {
+                hasMessage = true;
+                reorder[i] = 1;
+            } else {
+                addArgument(command, method, parameters[i], registry);
+                reorder[i] = 2 + argumentCount++;
+            }
+        }
+        final Invoker invoker = new Invoker(compile(method, holder, reorder, argumentCount), command.getRootName());
+        if (senderType == User.class) {
+            command.executesUser(invoker::invoke);
+        } else if (senderType == ConsoleCommandSender.class) {
+            command.executesConsole((sender, arguments) -> invoker.invoke(sender, arguments, null));
+        } else {
+            command.setExecutor(invoker::invoke);
+        }
+    }
+
+    private static boolean isSenderType(Class<?> type) {
+        return type == CommandSender.class || type == User.class || type == ConsoleCommandSender.class;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void addArgument(JKookCommand command, Method method, Parameter parameter, ArgumentParserRegistry registry) {
+        final Class<?> type = ArgumentParserRegistry.wrap(parameter.getType());
+        final Arg arg = parameter.getAnnotation(Arg.class);
+        if (arg == null || !arg.optional()) {
+            command.addArgument(type);
+            return;
+        }
+        final Object defaultValue;
+        try {
+            defaultValue = parseDefault(type, arg.defaultValue(), registry);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid default value of parameter " + parameter.getName()
+                    + " of method " + method.getName() + ": " + e.getMessage(), e);
+        }
+        command.addOptionalArgument((Class) type, defaultValue);
+    }
+
+    private static Object parseDefault(Class<?> type, String value, ArgumentParserRegistry registry) {
+        if (type == String.class) {
+            return value;
+        }
+        final ArgumentParser<?> parser = registry.getParser(type);
+        Validate.notNull(parser, "no parser is registered for " + type.getName());
+        final Object result = parser.parse(value);
+        Validate.notNull(result, "'" + value + "' cannot be parsed as " + type.getSimpleName());
+        return result;
+    }
+
+    // Return the handle of type (Object sender, Object message, Object[] arguments)void.
+    private static MethodHandle compile(Method method, Object holder, int[] reorder, int argumentCount) {
+        MethodHandle handle;
+        try {
+            if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Unable to access method " + method.getName(), e);
+        }
+        if (holder != null) {
+            handle = handle.bindTo(holder);
+        }
+        // all parameters become Object, the return value is dropped
+        handle = handle.asType(MethodType.genericMethodType(reorder.length).changeReturnType(void.class));
+        handle = MethodHandles.permuteArguments(handle, MethodType.genericMethodType(2 + argumentCount).changeReturnType(void.class), reorder);
+        return handle.asSpreader(Object[].class, argumentCount)
+                .asType(MethodType.methodType(void.class, Object.class, Object.class, Object[].class));
+    }
+
+    // Calls the compiled handle, the checked exceptions are wrapped by CommandException.
+    private static final class Invoker {
+        private final MethodHandle handle;
+        private final String name;
+
+        private Invoker(MethodHandle handle, String name) {
+            this.handle = handle;
+            this.name = name;
+        }
+
+        private void invoke(Object sender, Object[] arguments, Message message) {
+            try {
+                handle.invokeExact(sender, (Object) message, arguments);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new CommandException("Unexpected exception during the execution of command " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotation for describing the argument parameters of the methods marked by {@link Command} or {@link Subcommand}. <p>
+ * The parameters without this annotation are required arguments.
+ * The optional arguments must be placed after the required arguments.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Arg {
+
+    /**
+     * Turn this to true to mark the argument as an optional argument.
+     */
+    boolean optional() default false;
+
+    /**
+     * The default value of the optional argument. <p>
+     * The value is parsed by the parser registered for the type of the argument
+     *  (see {@link AnnotatedCommands#compile(Object, ArgumentParserRegistry)}).
+     */
+    String defaultValue() default "";
+}
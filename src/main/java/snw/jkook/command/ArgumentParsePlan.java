@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * The compiled plan for parsing the arguments of a command. <p>
+ * The parsers of all arguments are looked up when the plan is compiled (see {@link ArgumentParserRegistry#getPlan(JKookCommand)}),
+ *  so parsing the arguments is only calling the parsers in order. <p>
+ * This class is immutable.
+ */
+public final class ArgumentParsePlan {
+    private final ArgumentParser<?>[] parsers;
+    private final Object[] defaults; // the default values of the optional arguments, aligned to the end of parsers
+    private final int required;
+    private final Class<?>[] types;
+
+    ArgumentParsePlan(ArgumentParser<?>[] parsers, Object[] defaults, Class<?>[] types) {
+        this.parsers = parsers;
+        this.defaults = defaults;
+        this.required = parsers.length - defaults.length;
+        this.types = types;
+    }
+
+    // Compile the plan of the provided command, the parsers are got from the provided registry.
+    static ArgumentParsePlan compile(JKookCommand command, ArgumentParserRegistry registry) {
+        final Collection<Class<?>> arguments = command.getArguments();
+        final OptionalArgumentContainer optionals = command.getOptionalArguments();
+        final int count = arguments.size() + optionals.size();
+        final ArgumentParser<?>[] parsers = new ArgumentParser<?>[count];
+        final Class<?>[] types = new Class<?>[count];
+        final Object[] defaults = optionals.getValues().toArray();
+        int i = 0;
+        for (Class<?> type : arguments) {
+            types[i] = type;
+            parsers[i++] = require(command, type, registry);
+        }
+        for (Class<?> type : optionals.getKeys()) {
+            types[i] = type;
+            parsers[i++] = require(command, type, registry);
+        }
+        return new ArgumentParsePlan(parsers, defaults, types);
+    }
+
+    private static ArgumentParser<?> require(JKookCommand command, Class<?> type, ArgumentParserRegistry registry) {
+        final ArgumentParser<?> parser = registry.getParser(type);
+        if (parser == null) {
+            throw new IllegalArgumentException("The argument type " + type.getName() + " of command '" + command.getRootName() + "' is not supported.");
+        }
+        return parser;
+    }
+
+    /**
+     * Parse the arguments from the provided tokenizer. <p>
+     * The missing optional arguments are filled with their default values.
+     * The tokens after the last argument are ignored.
+     *
+     * @param tokenizer The tokenizer, it should be positioned before the first argument
+     * @return The arguments, or null if a required argument is missing or a token can't be parsed
+     */
+    public @Nullable Object[] parse(CommandLineTokenizer tokenizer) {
+        final Object[] result = new Object[parsers.length];
+        for (int i = 0; i < parsers.length; i++) {
+            if (!tokenizer.next()) {
+                if (i < required) {
+                    return null;
+                }
+                System.arraycopy(defaults, i - required, result, i, parsers.length - i);
+                break;
+            }
+            final Object value = parsers[i].parse(tokenizer.token());
+            if (value == null) {
+                return null;
+            }
+            result[i] = value;
+        }
+        return result;
+    }
+
+    /**
+     * Get the count of the arguments, including the optional arguments.
+     */
+    public int getArgumentCount() {
+        return parsers.length;
+    }
+
+    /**
+     * Get the count of the required arguments.
+     */
+    public int getRequiredCount() {
+        return required;
+    }
+
+    // Return true if this plan uses the parser of the provided class, or a parser which can be replaced by it.
+    boolean dependsOn(Class<?> clazz) {
+        for (Class<?> type : types) {
+            if (clazz.isAssignableFrom(ArgumentParserRegistry.wrap(type))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a parser which converts a token of the command line to the argument object. <p>
+ * It is registered by {@link CommandManager#registerTokenParser(Class, ArgumentParser)}.
+ * Unlike the {@link java.util.function.Function} accepted by {@link CommandManager#registerArgumentParser(Class, java.util.function.Function)},
+ *  this parser receives the token as a {@link CharSequence} view, so it does not need to create a string
+ *  if the value can be parsed directly (e.g. numbers). <p>
+ * The requirements are the same as the parsers registered to {@link CommandManager}:
+ * <ul>
+ *     <li>Don't throw exception if possible, or the command execution will be failed.</li>
+ *     <li>Return {@code null} instead of throwing exceptions if the parser can't understand the token.</li>
+ * </ul>
+ *
+ * @param <T> The argument type
+ */
+@FunctionalInterface
+public interface ArgumentParser<T> {
+
+    /**
+     * Parse the provided token.
+     *
+     * @param token The token, it is only valid during this call
+     * @return The argument object, or null if the token can't be understood
+     */
+    @Nullable
+    T parse(CharSequence token);
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import org.jetbrains.annotations.Nullable;
+import snw.jkook.util.Validate;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Holds the argument parsers and the compiled parse plans of the commands. <p>
+ * The parser of a class is looked up through its superclasses and interfaces only once,
+ *  and the plan of a command is compiled only once, so nothing is looked up when a command is executed.
+ * Registering a parser invalidates the plans which may use it, they will be compiled again when they are needed. <p>
+ * The implementations of {@link CommandManager} can use this class to implement
+ *  {@link CommandManager#registerArgumentParser(Class, Function)}. <p>
+ * This class is thread-safe.
+ */
+public final class ArgumentParserRegistry {
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<>();
+
+    static {
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(char.class, Character.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+    }
+
+    private final Map<Class<?>, ArgumentParser<?>> parsers = new ConcurrentHashMap<>();
+    // the result of the lookup through the type hierarchy, NONE if there is no parser
+    private final Map<Class<?>, ArgumentParser<?>> resolved = new ConcurrentHashMap<>();
+    private final Map<JKookCommand, ArgumentParsePlan> plans = new ConcurrentHashMap<>();
+    private static final ArgumentParser<?> NONE = token -> null;
+    // increased when a parser is registered, so the results computed with the old parsers are not cached.
+    // it is checked and the result is cached with the lock of this object held, so a registration can't happen between them.
+    private volatile int version;
+
+    /**
+     * Create a registry with the parsers of {@link String}, {@link Integer}, {@link Long},
+     *  {@link Double}, {@link Float} and {@link Boolean} (and their primitive types).
+     */
+    public static ArgumentParserRegistry withDefaults() {
+        final ArgumentParserRegistry registry = new ArgumentParserRegistry();
+        registry.registerTokenParser(String.class, CharSequence::toString);
+        registry.registerTokenParser(Integer.class, token -> {
+            final long value = parseLong(token);
+            return value != (int) value ? null : (int) value; // Long.MIN_VALUE is not an int, valid or not
+        });
+        registry.registerTokenParser(Long.class, token -> {
+            final long value = parseLong(token);
+            if (value != Long.MIN_VALUE) {
+                return value;
+            }
+            try { // Long.MIN_VALUE itself, or not valid
+                return Long.parseLong(token.toString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        });
+        registry.registerTokenParser(Double.class, token -> {
+            try {
+                return Double.valueOf(token.toString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        });
+        registry.registerTokenParser(Float.class, token -> {
+            try {
+                return Float.valueOf(token.toString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        });
+        registry.registerTokenParser(Boolean.class, token -> {
+            if (equalsIgnoreCase(token, "true")) {
+                return Boolean.TRUE;
+            }
+            return equalsIgnoreCase(token, "false") ? Boolean.FALSE : null;
+        });
+        return registry;
+    }
+
+    /**
+     * Register the binding between the specified class and the parser.
+     *
+     * @param clazz  The runtime class of argument
+     * @param parser The parser
+     * @param <T>    The argument type
+     * @throws IllegalStateException Thrown if the specified class has already bound to a parser.
+     */
+    public synchronized <T> void registerTokenParser(Class<T> clazz, ArgumentParser<? extends T> parser) throws IllegalStateException {
+        Validate.notNull(clazz);
+        Validate.notNull(parser);
+        final Class<?> key = wrap(clazz);
+        if (parsers.putIfAbsent(key, parser) != null) {
+            throw new IllegalStateException("The class " + clazz.getName() + " has already bound to a parser.");
+        }
+        // the new parser may be more specific than the resolved ones
+        version++;
+        resolved.keySet().removeIf(key::isAssignableFrom);
+        plans.values().removeIf(plan -> plan.dependsOn(key));
+    }
+
+    /**
+     * Register the binding between the specified class and the parser which accepts strings.
+     *
+     * @param clazz  The runtime class of argument
+     * @param parser The parser function
+     * @param <T>    The argument type
+     * @throws IllegalStateException Thrown if the specified class has already bound to a parser.
+     */
+    public <T> void register(Class<T> clazz, Function<String, T> parser) throws IllegalStateException {
+        Validate.notNull(parser);
+        registerTokenParser(clazz, token -> parser.apply(token.toString()));
+    }
+
+    /**
+     * Get the parser for the provided class. <p>
+     * If there is no parser bound to the class, the parser of the nearest superclass
+     *  (or interface) will be returned.
+     *
+     * @param clazz The class
+     * @return The parser, or null if there is no parser for the class
+     */
+    public @Nullable ArgumentParser<?> getParser(Class<?> clazz) {
+        Validate.notNull(clazz);
+        final Class<?> key = wrap(clazz);
+        ArgumentParser<?> parser = resolved.get(key);
+        if (parser == null) {
+            final int version = this.version;
+            parser = lookup(key);
+            if (parser == null) {
+                parser = NONE;
+            }
+            synchronized (this) {
+                if (version == this.version) {
+                    resolved.put(key, parser);
+                }
+            }
+        }
+        return parser == NONE ? null : parser;
+    }
+
+    /**
+     * Get the compiled parse plan of the provided command. The plan is compiled if it is not compiled yet.
+     *
+     * @param command The command
+     * @throws IllegalArgumentException Thrown if an argument of the command is not supported
+     */
+    public ArgumentParsePlan getPlan(JKookCommand command) throws IllegalArgumentException {
+        Validate.notNull(command);
+        ArgumentParsePlan plan = plans.get(command);
+        if (plan == null) {
+            final int version = this.version;
+            plan = ArgumentParsePlan.compile(command, this);
+            synchronized (this) {
+                if (version == this.version) {
+                    plans.put(command, plan);
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Compile the parse plans of the provided command and its subcommands,
+     *  it is useful for checking the arguments when the command is registered.
+     *
+     * @param command The command
+     * @throws IllegalArgumentException Thrown if an argument of the command is not supported
+     */
+    public void compile(JKookCommand command) throws IllegalArgumentException {
+        getPlan(command);
+        for (JKookCommand subcommand : command.getSubcommands()) {
+            compile(subcommand);
+        }
+    }
+
+    /**
+     * Remove the parse plan of the provided command and its subcommands (e.g. the command was unregistered).
+     *
+     * @param command The command
+     */
+    public void forget(JKookCommand command) {
+        plans.remove(command);
+        for (JKookCommand subcommand : command.getSubcommands()) {
+            forget(subcommand);
+        }
+    }
+
+    // Breadth-first search through the superclasses and interfaces, the nearest one wins.
+    private ArgumentParser<?> lookup(Class<?> clazz) {
+        final Deque<Class<?>> queue = new ArrayDeque<>();
+        final Set<Class<?>> visited = new HashSet<>();
+        queue.add(clazz);
+        while (!queue.isEmpty()) {
+            final Class<?> current = queue.poll();
+            if (!visited.add(current) || current == Object.class) {
+                continue;
+            }
+            final ArgumentParser<?> parser = parsers.get(current);
+            if (parser != null) {
+                return parser;
+            }
+            if (current.getSuperclass() != null) {
+                queue.add(current.getSuperclass());
+            }
+            for (Class<?> anInterface : current.getInterfaces()) {
+                queue.add(anInterface);
+            }
+        }
+        return null;
+    }
+
+    static Class<?> wrap(Class<?> clazz) {
+        return clazz.isPrimitive() ? WRAPPERS.get(clazz) : clazz;
+    }
+
+    // Parse a decimal number without creating a string if possible.
+    // Long.MIN_VALUE means the token is not valid or it is Long.MIN_VALUE, the callers must check it again.
+    private static long parseLong(CharSequence token) {
+        final int length = token.length();
+        if (length == 0) {
+            return Long.MIN_VALUE;
+        }
+        final boolean negative = token.charAt(0) == '-';
+        int i = negative || token.charAt(0) == '+' ? 1 : 0;
+        if (i == length) {
+            return Long.MIN_VALUE;
+        }
+        if (length - i > 18) { // may overflow, let the JDK check it
+            try {
+                return Long.parseLong(token.toString());
+            } catch (NumberFormatException e) {
+                return Long.MIN_VALUE;
+            }
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            final int digit = token.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence token, String s) {
+        if (token.length() != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.toLowerCase(token.charAt(i)) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotation for marking the method which executes a root command. <p>
+ * The parameters of the method are following:
+ * <ul>
+ *     <li>The sender, its type decides which senders can execute the command:
+ *     {@link CommandSender} (all senders), {@link snw.jkook.entity.User} or {@link ConsoleCommandSender}. It can be omitted.</li>
+ *     <li>The {@link snw.jkook.message.Message} which caused the execution, it may be null. It can be omitted.</li>
+ *     <li>All other parameters are the arguments of the command, in the order of declaration. See {@link Arg}.</li>
+ * </ul>
+ * The annotated methods are compiled by {@link AnnotatedCommands#compile(Object)}.
+ *
+ * @see Subcommand
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Command {
+
+    /**
+     * The root name of the command.
+     */
+    String value();
+
+    /**
+     * The aliases of the command.
+     */
+    String[] aliases() default {};
+
+    /**
+     * The prefixes of the command.
+     */
+    String[] prefixes() default {"/"};
+
+    /**
+     * The description of the command.
+     */
+    String description() default "";
+
+    /**
+     * The help content of the command.
+     */
+    String helpContent() default "";
+}
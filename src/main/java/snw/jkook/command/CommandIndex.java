@@ -0,0 +1,269 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import org.jetbrains.annotations.Nullable;
+import snw.jkook.util.Validate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A compiled index for finding the command of a command line. <p>
+ * The index is a radix trie keyed on all combinations of the prefixes and the names (root name and aliases)
+ *  of the commands, and each command has a trie of its subcommands.
+ * So finding the command costs O(length of the command tokens), no matter how many commands are registered. <p>
+ * This class is immutable, the implementations of {@link CommandManager} should build a new index
+ *  when a command is registered. <p>
+ * Example:
+ * <blockquote><pre>
+ * {@code
+ *     CommandIndex.Match match = index.resolve("/hello world 123");
+ *     if (match != null) {
+ *         JKookCommand command = match.getCommand(); // "world" if it is a subcommand of "hello"
+ *         String arguments = cmdLine.substring(match.getArgumentsStart()); // "123"
+ *     }
+ * }
+ * </pre></blockquote>
+ */
+public final class CommandIndex {
+    private final CommandTrie<Entry> roots;
+    private final List<JKookCommand> commands;
+    // The bitset of the ASCII characters which can start a command line, for the fast rejection.
+    private final long asciiFirstChars0; // 0 - 63
+    private final long asciiFirstChars1; // 64 - 127
+    private final boolean nonAsciiFirstChars;
+
+    /**
+     * Build the index of the provided commands.
+     *
+     * @param commands The root commands
+     * @throws IllegalArgumentException Thrown if two commands (or two subcommands of the same command)
+     *                                  can be called by the same command token
+     */
+    public CommandIndex(Collection<JKookCommand> commands) {
+        Validate.notNull(commands);
+        this.roots = new CommandTrie<>();
+        this.commands = Collections.unmodifiableList(new ArrayList<>(commands));
+        for (JKookCommand command : this.commands) {
+            Validate.notNull(command, "The commands cannot contain null.");
+            final Entry entry = new Entry(command);
+            for (String prefix : command.getPrefixes()) {
+                put(roots, prefix + command.getRootName(), entry);
+                for (String alias : command.getAliases()) {
+                    put(roots, prefix + alias, entry);
+                }
+            }
+        }
+        long first0 = 0, first1 = 0;
+        boolean nonAscii = false;
+        for (char c : roots.firstChars()) {
+            if (c < 64) {
+                first0 |= 1L << c;
+            } else if (c < 128) {
+                first1 |= 1L << (c - 64);
+            } else {
+                nonAscii = true;
+            }
+        }
+        this.asciiFirstChars0 = first0;
+        this.asciiFirstChars1 = first1;
+        this.nonAsciiFirstChars = nonAscii;
+    }
+
+    /**
+     * Return a new index which contains the commands of this index and the provided command.
+     *
+     * @param command The command to add
+     * @throws IllegalArgumentException Thrown if the command conflicts with an indexed command
+     */
+    public CommandIndex with(JKookCommand command) {
+        Validate.notNull(command);
+        final List<JKookCommand> result = new ArrayList<>(commands.size() + 1);
+        result.addAll(commands);
+        result.add(command);
+        return new CommandIndex(result);
+    }
+
+    /**
+     * Find the command of the provided command line. <p>
+     * The first token of the command line (including the prefix) is matched against the root commands,
+     *  then the following tokens are matched against the subcommands as many as possible.
+     *
+     * @param cmdLine The command line, prefix is needed (e.g. <code>/hello</code>)
+     * @return The result, or null if no command matches the command line
+     */
+    public @Nullable Match resolve(CharSequence cmdLine) {
+        if (!mayBeCommand(cmdLine)) {
+            return null;
+        }
+        final int length = cmdLine.length();
+        int end = tokenEnd(cmdLine, 0);
+        Entry entry = roots.get(cmdLine, 0, end);
+        if (entry == null) {
+            return null;
+        }
+        final Entry root = entry;
+        int depth = 0;
+        while (entry.subcommands != null) {
+            final int start = skipWhitespace(cmdLine, end);
+            if (start == length) {
+                break;
+            }
+            final int tokenEnd = tokenEnd(cmdLine, start);
+            final Entry sub = entry.subcommands.get(cmdLine, start, tokenEnd);
+            if (sub == null) {
+                break;
+            }
+            entry = sub;
+            end = tokenEnd;
+            depth++;
+        }
+        return new Match(root.command, entry.command, depth, skipWhitespace(cmdLine, end));
+    }
+
+    /**
+     * Return false if the provided text is surely not a command line. <p>
+     * It only checks the first character against all characters which can start a command
+     *  (the first character of the prefixes, or the names if the prefix is empty),
+     *  so it is very fast and does not allocate anything. It is useful for rejecting the normal chat messages. <p>
+     * If this method returns true, use {@link #resolve(CharSequence)} to find the command.
+     *
+     * @param text The text, such as the content of a message
+     */
+    public boolean mayBeCommand(CharSequence text) {
+        if (text.length() == 0) {
+            return false;
+        }
+        final char c = text.charAt(0);
+        if (c < 64) {
+            return (asciiFirstChars0 & (1L << c)) != 0;
+        }
+        if (c < 128) {
+            return (asciiFirstChars1 & (1L << (c - 64))) != 0;
+        }
+        return nonAsciiFirstChars && Arrays.binarySearch(roots.firstChars(), c) >= 0;
+    }
+
+    /**
+     * Get the root commands in this index.
+     */
+    public List<JKookCommand> getCommands() {
+        return commands;
+    }
+
+    private static void put(CommandTrie<Entry> trie, String key, Entry entry) {
+        final Entry previous = trie.put(key, entry);
+        Validate.isTrue(previous == null || previous == entry,
+                "Command token '" + key + "' is used by both '" + (previous == null ? null : previous.command.getRootName())
+                        + "' and '" + entry.command.getRootName() + "'.");
+    }
+
+    static int tokenEnd(CharSequence s, int start) {
+        int i = start;
+        while (i < s.length() && !Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    static int skipWhitespace(CharSequence s, int start) {
+        int i = start;
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * The command and its subcommand trie.
+     */
+    static final class Entry {
+        final JKookCommand command;
+        final CommandTrie<Entry> subcommands;
+
+        Entry(JKookCommand command) {
+            this.command = command;
+            final Collection<JKookCommand> children = command.getSubcommands();
+            if (children.isEmpty()) {
+                this.subcommands = null;
+            } else {
+                this.subcommands = new CommandTrie<>();
+                for (JKookCommand child : children) {
+                    final Entry entry = new Entry(child);
+                    put(subcommands, child.getRootName(), entry);
+                    for (String alias : child.getAliases()) {
+                        put(subcommands, alias, entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Represents the result of {@link #resolve(CharSequence)}.
+     */
+    public static final class Match {
+        private final JKookCommand rootCommand;
+        private final JKookCommand command;
+        private final int depth;
+        private final int argumentsStart;
+
+        Match(JKookCommand rootCommand, JKookCommand command, int depth, int argumentsStart) {
+            this.rootCommand = rootCommand;
+            this.command = command;
+            this.depth = depth;
+            this.argumentsStart = argumentsStart;
+        }
+
+        /**
+         * Get the root command which matches the first token.
+         */
+        public JKookCommand getRootCommand() {
+            return rootCommand;
+        }
+
+        /**
+         * Get the deepest command which matches the command line, it is the command that should be executed.
+         */
+        public JKookCommand getCommand() {
+            return command;
+        }
+
+        /**
+         * Get the count of the subcommand tokens, <code>0</code> if the root command should be executed.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Get the position in the command line where the arguments start.
+         */
+        public int getArgumentsStart() {
+            return argumentsStart;
+        }
+
+        @Override
+        public String toString() {
+            return "Match{command=" + command.getRootName() + ", depth=" + depth + ", argumentsStart=" + argumentsStart + '}';
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import snw.jkook.util.Validate;
+
+/**
+ * Splits a command line into tokens without creating strings. <p>
+ * The tokens are separated by whitespace. A token can be quoted by <code>"</code> or <code>'</code>
+ *  to include whitespace, and a backslash escapes the next character (e.g. <code>\"</code>). <p>
+ * The current token is provided as a {@link CharSequence} view of the command line,
+ *  so only the tokens which are really used need to become strings (by calling {@code toString()}).
+ * The view is reused, it is only valid until {@link #next()} is called again. <p>
+ * Example:
+ * <blockquote><pre>
+ * {@code
+ *     CommandLineTokenizer tokenizer = new CommandLineTokenizer(cmdLine, match.getArgumentsStart());
+ *     while (tokenizer.next()) {
+ *         CharSequence argument = tokenizer.token();
+ *     }
+ * }
+ * </pre></blockquote>
+ * This class is not thread-safe, but an instance can be used again by {@link #reset(CharSequence, int)}.
+ */
+public final class CommandLineTokenizer {
+    private final Slice slice = new Slice();
+    private final StringBuilder unescaped = new StringBuilder();
+    private CharSequence source;
+    private int pos;
+    private int start;
+    private int end;
+    private boolean quoted;
+    private boolean escaped;
+    private boolean unescapedReady;
+
+    /**
+     * Create a tokenizer for the whole command line.
+     *
+     * @param source The command line
+     */
+    public CommandLineTokenizer(CharSequence source) {
+        this(source, 0);
+    }
+
+    /**
+     * Create a tokenizer for the command line from the provided position.
+     *
+     * @param source The command line
+     * @param offset The position where the tokens start (e.g. {@link CommandIndex.Match#getArgumentsStart()})
+     */
+    public CommandLineTokenizer(CharSequence source, int offset) {
+        reset(source, offset);
+    }
+
+    /**
+     * Use this tokenizer for another command line.
+     *
+     * @param source The command line
+     * @param offset The position where the tokens start
+     */
+    public CommandLineTokenizer reset(CharSequence source, int offset) {
+        Validate.notNull(source);
+        Validate.isTrue(offset >= 0 && offset <= source.length(), "The offset is out of the command line.");
+        this.source = source;
+        this.pos = offset;
+        this.start = this.end = -1;
+        this.quoted = this.escaped = this.unescapedReady = false;
+        return this;
+    }
+
+    /**
+     * Move to the next token.
+     *
+     * @return True if there is a token, false if the end of the command line is reached
+     */
+    public boolean next() {
+        final int length = source.length();
+        pos = CommandIndex.skipWhitespace(source, pos);
+        if (pos == length) {
+            start = end = -1;
+            return false;
+        }
+        escaped = false;
+        unescapedReady = false;
+        final char first = source.charAt(pos);
+        quoted = first == '"' || first == '\'';
+        if (quoted) {
+            start = ++pos;
+            while (pos < length && source.charAt(pos) != first) {
+                if (source.charAt(pos) == '\\' && pos + 1 < length) {
+                    escaped = true;
+                    pos++;
+                }
+                pos++;
+            }
+            end = pos;
+            if (pos < length) {
+                pos++; // the closing quote
+            }
+        } else {
+            start = pos;
+            while (pos < length && !Character.isWhitespace(source.charAt(pos))) {
+                if (source.charAt(pos) == '\\' && pos + 1 < length) {
+                    escaped = true;
+                    pos++;
+                }
+                pos++;
+            }
+            end = pos;
+        }
+        return true;
+    }
+
+    /**
+     * Get the current token, without the quotes and the escape characters. <p>
+     * The result is only valid until {@link #next()} is called again, call {@code toString()} on it to keep it.
+     *
+     * @throws IllegalStateException Thrown if there is no current token
+     */
+    public CharSequence token() {
+        ensureToken();
+        if (!escaped) {
+            return slice.set(source, start, end);
+        }
+        if (!unescapedReady) {
+            unescaped.setLength(0);
+            for (int i = start; i < end; i++) {
+                char c = source.charAt(i);
+                if (c == '\\' && i + 1 < end) {
+                    c = source.charAt(++i);
+                }
+                unescaped.append(c);
+            }
+            unescapedReady = true;
+        }
+        return unescaped;
+    }
+
+    /**
+     * Get the current token as a string.
+     *
+     * @throws IllegalStateException Thrown if there is no current token
+     */
+    public String tokenString() {
+        return token().toString();
+    }
+
+    /**
+     * Return true if the current token is quoted.
+     */
+    public boolean isQuoted() {
+        ensureToken();
+        return quoted;
+    }
+
+    /**
+     * Get the position where the content of the current token starts, the quote is not included.
+     */
+    public int getTokenStart() {
+        ensureToken();
+        return start;
+    }
+
+    /**
+     * Get the position where the content of the current token ends (exclusive), the quote is not included.
+     */
+    public int getTokenEnd() {
+        ensureToken();
+        return end;
+    }
+
+    /**
+     * Get the position after the current token. <p>
+     * It can be used to get the remaining part of the command line (e.g. a message as the last argument).
+     */
+    public int getPosition() {
+        return pos;
+    }
+
+    /**
+     * Get the command line used by this tokenizer.
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
+    /**
+     * Count the remaining tokens, the position of this tokenizer is not changed.
+     */
+    public int countRemaining() {
+        final int savedPos = pos, savedStart = start, savedEnd = end;
+        final boolean savedQuoted = quoted, savedEscaped = escaped, savedReady = unescapedReady;
+        int count = 0;
+        while (next()) {
+            count++;
+        }
+        pos = savedPos;
+        start = savedStart;
+        end = savedEnd;
+        quoted = savedQuoted;
+        escaped = savedEscaped;
+        unescapedReady = savedReady;
+        return count;
+    }
+
+    private void ensureToken() {
+        if (start == -1) {
+            throw new IllegalStateException("There is no current token, call next() first.");
+        }
+    }
+
+    // A reusable view of a part of the command line.
+    private static final class Slice implements CharSequence {
+        private CharSequence source;
+        private int start;
+        private int end;
+
+        private Slice set(CharSequence source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + (end - start));
+            }
+            return source.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return source.subSequence(this.start + start, this.start + end);
+        }
+
+        @Override
+        public String toString() {
+            return source.subSequence(start, end).toString();
+        }
+    }
+}
@@ -16,14 +16,20 @@
 
 package snw.jkook.command;
 
+import org.jetbrains.annotations.Nullable;
 import snw.jkook.message.Message;
 import snw.jkook.plugin.Plugin;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
- * Represents the command manager.
+ * Represents the command manager. <p>
+ * The implementations can use {@link CommandIndex} to find the command of a command line quickly.
+ * Most messages are not commands, the implementations should reject them by {@link CommandIndex#mayBeCommand(CharSequence)}
+ *  before doing anything else with the command line, so they are rejected without any allocation.
+ * The implementations should also record the statistics of the executed commands to {@link JKookCommand#getMetrics()}.
  */
 public interface CommandManager {
 
@@ -48,6 +54,23 @@ public interface CommandManager {
      */
     void registerCommand(Plugin plugin, Supplier<JKookCommand> command) throws NullPointerException, IllegalArgumentException;
 
+    /**
+     * Register the commands declared by the methods marked by {@link Command} and {@link Subcommand}. <p>
+     * The methods are compiled by {@link AnnotatedCommands#compile(Object)} only once.
+     * If the default values of the optional arguments need the custom parsers,
+     *  compile the methods by {@link AnnotatedCommands#compile(Object, ArgumentParserRegistry)} and register the results instead.
+     *
+     * @param plugin The plugin as the command owner
+     * @param holder The object which declares the annotated methods, or a {@link Class} for the static methods
+     * @throws IllegalArgumentException Thrown if an annotated method is not valid, or the command with the same root name was registered,
+     *                                  or the argument inside the command is not supported.
+     */
+    default void registerCommands(Plugin plugin, Object holder) throws IllegalArgumentException {
+        for (JKookCommand command : AnnotatedCommands.compile(holder)) {
+            registerCommand(plugin, command);
+        }
+    }
+
     /**
      * Execute a command with given command line.
      *
@@ -55,6 +78,7 @@ public interface CommandManager {
      * @param cmdLine The command line, prefix is needed (e.g. <code>/hello</code>)
      * @return True if command found and executed, false otherwise
      * @throws CommandException Thrown if unexpected situation happened during the execution of the command
+     * @see CommandIndex#mayBeCommand(CharSequence)
      */
     boolean executeCommand(CommandSender sender, String cmdLine) throws CommandException;
 
@@ -69,6 +93,29 @@ public interface CommandManager {
      */
     boolean executeCommand(CommandSender sender, String cmdLine, Message message) throws CommandException;
 
+    /**
+     * Execute a command with given command line, the result is provided when the execution is done. <p>
+     * The command is executed according to its {@link JKookCommand#getExecutionPolicy() execution policy},
+     *  so this method returns immediately if the policy is asynchronous. <p>
+     * The default implementation just calls {@link #executeCommand(CommandSender, String, Message)},
+     *  the implementations should override it to complete the result after the asynchronous execution is done.
+     *
+     * @param sender  The sender of this command
+     * @param cmdLine The command line, prefix is needed (e.g. <code>/hello</code>)
+     * @param message The message object as the cause of this command execution
+     * @return The future which will be completed with true if command found and executed, false otherwise,
+     *         it will be completed exceptionally by {@link CommandException} if the execution failed
+     */
+    default CompletableFuture<Boolean> executeCommandAsync(CommandSender sender, String cmdLine, @Nullable Message message) {
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        try {
+            result.complete(executeCommand(sender, cmdLine, message));
+        } catch (CommandException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
     /**
      * Register the binding between the specified class and the parser.
      * <p>
@@ -84,4 +131,21 @@ public interface CommandManager {
      * @throws IllegalStateException Thrown if the specified class has already bound to a parser.
      */
     <T> void registerArgumentParser(Class<T> clazz, Function<String, T> parser) throws IllegalStateException;
+
+    /**
+     * Register the binding between the specified class and the parser which accepts the token as a {@link CharSequence}. <p>
+     * The requirements of the parser are the same as {@link #registerArgumentParser(Class, Function)}. <p>
+     * By default, the token is converted to a string and passed to the parser.
+     * The implementations which parse the command line by {@link CommandLineTokenizer} should override this method,
+     *  so the parser receives the token directly.
+     *
+     * @param clazz  The runtime class of argument
+     * @param parser The parser
+     * @param <T>    The argument type
+     * @throws IllegalStateException Thrown if the specified class has already bound to a parser.
+     * @see ArgumentParserRegistry
+     */
+    default <T> void registerTokenParser(Class<T> clazz, ArgumentParser<T> parser) throws IllegalStateException {
+        registerArgumentParser(clazz, (Function<String, T>) parser::parse);
+    }
 }
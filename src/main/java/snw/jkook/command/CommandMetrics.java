@@ -0,0 +1,283 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import snw.jkook.util.Validate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the execution statistics of a command. <p>
+ * Each {@link JKookCommand} (including the subcommands) has its own metrics, see {@link JKookCommand#getMetrics()}.
+ * The implementations of {@link CommandManager} record the invocations, the parse failures,
+ *  the {@link CommandException}s and the latency of parsing and execution,
+ *  and the plugins can query them at runtime by {@link #snapshot()}. <p>
+ * Recording is lock-free and does not allocate, the latency is recorded into histograms
+ *  with power-of-two buckets. <p>
+ * This class is thread-safe.
+ */
+public final class CommandMetrics {
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Histogram parseLatency = new Histogram();
+    private final Histogram executionLatency = new Histogram();
+
+    CommandMetrics() {
+    }
+
+    /**
+     * Record that the command was invoked (e.g. its command line was resolved to it).
+     */
+    public void recordInvocation() {
+        invocations.increment();
+    }
+
+    /**
+     * Record the time spent for parsing the arguments.
+     *
+     * @param nanos   The time in nanoseconds
+     * @param success False if the arguments could not be parsed
+     */
+    public void recordParse(long nanos, boolean success) {
+        parseLatency.record(nanos);
+        if (!success) {
+            parseFailures.increment();
+        }
+    }
+
+    /**
+     * Record the time spent for executing the command.
+     *
+     * @param nanos   The time in nanoseconds
+     * @param success False if the execution threw an exception (usually {@link CommandException})
+     */
+    public void recordExecution(long nanos, boolean success) {
+        executionLatency.record(nanos);
+        if (!success) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * Get the current statistics.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(invocations.sum(), parseFailures.sum(), failures.sum(), parseLatency.snapshot(), executionLatency.snapshot());
+    }
+
+    /**
+     * Get the statistics of the provided commands and all of their subcommands. <p>
+     * The keys are the paths of the commands, such as "money pay".
+     *
+     * @param commands The root commands
+     */
+    public static Map<String, Snapshot> snapshot(Collection<JKookCommand> commands) {
+        Validate.notNull(commands);
+        final Map<String, Snapshot> result = new LinkedHashMap<>();
+        for (JKookCommand command : commands) {
+            collect(command, command.getRootName(), result);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static void collect(JKookCommand command, String path, Map<String, Snapshot> result) {
+        result.put(path, command.getMetrics().snapshot());
+        for (JKookCommand subcommand : command.getSubcommands()) {
+            collect(subcommand, path + ' ' + subcommand.getRootName(), result);
+        }
+    }
+
+    /**
+     * Represents the statistics of a command at a moment.
+     */
+    public static final class Snapshot {
+        private final long invocations;
+        private final long parseFailures;
+        private final long failures;
+        private final LatencySnapshot parseLatency;
+        private final LatencySnapshot executionLatency;
+
+        Snapshot(long invocations, long parseFailures, long failures, LatencySnapshot parseLatency, LatencySnapshot executionLatency) {
+            this.invocations = invocations;
+            this.parseFailures = parseFailures;
+            this.failures = failures;
+            this.parseLatency = parseLatency;
+            this.executionLatency = executionLatency;
+        }
+
+        /**
+         * Get the count of the invocations.
+         */
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * Get the count of the invocations whose arguments could not be parsed.
+         */
+        public long getParseFailures() {
+            return parseFailures;
+        }
+
+        /**
+         * Get the count of the executions which threw an exception.
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Get the latency of parsing the arguments.
+         */
+        public LatencySnapshot getParseLatency() {
+            return parseLatency;
+        }
+
+        /**
+         * Get the latency of executing the command.
+         */
+        public LatencySnapshot getExecutionLatency() {
+            return executionLatency;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "invocations=" + invocations +
+                    ", parseFailures=" + parseFailures +
+                    ", failures=" + failures +
+                    ", parseLatency=" + parseLatency +
+                    ", executionLatency=" + executionLatency +
+                    '}';
+        }
+    }
+
+    /**
+     * Represents the latency histogram at a moment. <p>
+     * The percentiles are estimated by the upper bound of the power-of-two bucket,
+     *  so they are at most twice the real value.
+     */
+    public static final class LatencySnapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long total;
+        private final long max;
+
+        LatencySnapshot(long[] buckets, long count, long total, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        /**
+         * Get the count of the records.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Get the mean latency in the provided unit, <code>0</code> if there is no record.
+         *
+         * @param unit The unit
+         */
+        public double getMean(TimeUnit unit) {
+            return count == 0 ? 0 : (double) total / count / unit.toNanos(1);
+        }
+
+        /**
+         * Get the maximum latency in the provided unit.
+         *
+         * @param unit The unit
+         */
+        public long getMax(TimeUnit unit) {
+            return unit.convert(max, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Get the estimated percentile in the provided unit, <code>0</code> if there is no record.
+         *
+         * @param percentile The percentile, in [0, 100]
+         * @param unit       The unit
+         */
+        public long getPercentile(double percentile, TimeUnit unit) {
+            Validate.isTrue(percentile >= 0 && percentile <= 100, "The percentile must be in [0, 100].");
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return unit.convert(Math.min(Histogram.upperBound(i), max), TimeUnit.NANOSECONDS);
+                }
+            }
+            return getMax(unit);
+        }
+
+        @Override
+        public String toString() {
+            return "LatencySnapshot{" +
+                    "count=" + count +
+                    ", meanMicros=" + getMean(TimeUnit.MICROSECONDS) +
+                    ", p99Micros=" + getPercentile(99, TimeUnit.MICROSECONDS) +
+                    ", maxMicros=" + getMax(TimeUnit.MICROSECONDS) +
+                    '}';
+        }
+    }
+
+    // Bucket i holds the values in [2^(i-1), 2^i), bucket 0 holds 0.
+    static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long nanos) {
+            final long value = Math.max(nanos, 0L);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+            total.add(value);
+            long current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // retry
+            }
+        }
+
+        LatencySnapshot snapshot() {
+            final long[] copy = new long[buckets.length()];
+            long count = 0;
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = buckets.get(i);
+                count += copy[i];
+            }
+            return new LatencySnapshot(copy, count, total.sum(), max.get());
+        }
+
+        static long upperBound(int bucket) {
+            return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+        }
+    }
+}
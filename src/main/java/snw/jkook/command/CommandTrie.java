@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import java.util.Arrays;
+
+/**
+ * A radix trie which maps strings to values. <p>
+ * The children of each node are sorted by their first character, so a lookup costs
+ *  O(length of the key * log(count of the children)).
+ *
+ * @param <V> The type of the values
+ */
+final class CommandTrie<V> {
+    private static final char[] NO_CHARS = new char[0];
+    private final Node<V> root = new Node<>(NO_CHARS);
+
+    /**
+     * Put the value for the provided key.
+     *
+     * @return The previous value for the key, or null if there was no value
+     */
+    V put(String key, V value) {
+        Node<V> node = root;
+        int i = 0;
+        while (i < key.length()) {
+            final char c = key.charAt(i);
+            final int index = Arrays.binarySearch(node.firsts, c);
+            if (index < 0) {
+                final Node<V> leaf = new Node<>(key.substring(i).toCharArray());
+                leaf.value = value;
+                node.insert(-index - 1, leaf);
+                return null;
+            }
+            final Node<V> child = node.children[index];
+            final int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                // split the edge, the new node holds the common part
+                final Node<V> middle = new Node<>(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.insert(0, child);
+                node.children[index] = middle;
+                node = middle;
+            } else {
+                node = child;
+            }
+            i += common;
+        }
+        final V previous = node.value;
+        node.value = value;
+        return previous;
+    }
+
+    /**
+     * Get the value for the key which is the provided range of the provided characters.
+     *
+     * @return The value, or null if there is no value for the key
+     */
+    V get(CharSequence s, int start, int end) {
+        Node<V> node = root;
+        int i = start;
+        while (i < end) {
+            final int index = Arrays.binarySearch(node.firsts, s.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            final char[] label = node.label;
+            if (end - i < label.length) {
+                return null;
+            }
+            for (int j = 1; j < label.length; j++) { // the first character has been compared
+                if (s.charAt(i + j) != label[j]) {
+                    return null;
+                }
+            }
+            i += label.length;
+        }
+        return node.value;
+    }
+
+    /**
+     * Get the sorted first characters of the keys. The returned array must not be modified.
+     */
+    char[] firstChars() {
+        return root.firsts;
+    }
+
+    private static int commonPrefix(char[] label, String key, int offset) {
+        final int max = Math.min(label.length, key.length() - offset);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node<V> {
+        private char[] label;
+        private char[] firsts = NO_CHARS;
+        private Node<V>[] children = newArray(0);
+        private V value;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        private void insert(int index, Node<V> child) {
+            final int count = firsts.length;
+            final char[] newFirsts = new char[count + 1];
+            final Node<V>[] newChildren = newArray(count + 1);
+            System.arraycopy(firsts, 0, newFirsts, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newFirsts[index] = child.label[0];
+            newChildren[index] = child;
+            System.arraycopy(firsts, index, newFirsts, index + 1, count - index);
+            System.arraycopy(children, index, newChildren, index + 1, count - index);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] newArray(int length) {
+            return (Node<V>[]) new Node<?>[length];
+        }
+    }
+}
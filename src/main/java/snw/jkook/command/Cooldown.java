@@ -0,0 +1,215 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import org.jetbrains.annotations.Nullable;
+import snw.jkook.entity.User;
+import snw.jkook.message.ChannelMessage;
+import snw.jkook.message.Message;
+import snw.jkook.util.Validate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often a command can be executed. <p>
+ * A cooldown allows at most {@code permits} executions in any window of the provided duration,
+ *  for each user, each guild, or globally (see {@link Scope}). For example, 1 permit per 10 seconds is a 10-second cooldown. <p>
+ * The state is stored in fixed-size arrays, one <code>long</code> per tracked user or guild (the time when it becomes idle),
+ *  so the memory usage does not grow with the count of the users.
+ * The entries are reused automatically when they become idle.
+ * If there are too many active users, the entries closest to expiry are evicted, so the limit is slightly relaxed
+ *  instead of consuming more memory. <p>
+ * The implementations of {@link CommandManager} should check the cooldowns of the command
+ *  (see {@link JKookCommand#getCooldowns()}) before parsing the arguments. <p>
+ * This class is thread-safe.
+ */
+public final class Cooldown {
+    private static final int PROBES = 8;
+
+    private final Scope scope;
+    private final int permits;
+    private final long window;
+    private final long interval; // the time each execution occupies
+    private final long tolerance; // how far the idle time can be ahead of now
+    private final int mask;
+    private final long[] keys;
+    // the time (in nanoseconds) when each key becomes idle, an entry is free if it is not after now
+    private final long[] idleTimes;
+
+    /**
+     * The constructor for a simple cooldown, only one execution is allowed in each duration.
+     *
+     * @param scope    The scope
+     * @param duration The duration
+     * @param unit     The unit of the duration
+     */
+    public Cooldown(Scope scope, long duration, TimeUnit unit) {
+        this(scope, 1, duration, unit, 1024);
+    }
+
+    /**
+     * The main constructor.
+     *
+     * @param scope    The scope
+     * @param permits  The maximum count of the executions in the window
+     * @param window   The window
+     * @param unit     The unit of the window
+     * @param capacity The maximum count of the tracked users or guilds, it is rounded up to a power of two
+     */
+    public Cooldown(Scope scope, int permits, long window, TimeUnit unit, int capacity) {
+        Validate.notNull(scope, "The scope cannot be null.");
+        Validate.notNull(unit, "The unit cannot be null.");
+        Validate.isTrue(permits > 0, "The count of the permits must be positive.");
+        Validate.isTrue(window > 0, "The window must be positive.");
+        Validate.isTrue(capacity > 0 && capacity <= 1 << 24, "The capacity must be in (0, 16777216].");
+        this.scope = scope;
+        this.permits = permits;
+        this.window = unit.toNanos(window);
+        this.interval = this.window / permits;
+        this.tolerance = this.window - this.interval;
+        final int size = scope == Scope.GLOBAL ? 1 : Math.max(PROBES, Integer.highestOneBit(capacity - 1) << 1);
+        this.mask = size - 1;
+        this.keys = new long[size];
+        this.idleTimes = new long[size];
+        final long now = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            idleTimes[i] = now; // all free
+        }
+    }
+
+    /**
+     * Try to use a permit for the provided sender. <p>
+     * The console is not limited, whatever the scope is. If the scope is {@link Scope#GUILD} and the message is not from a guild,
+     *  the sender is limited as if the scope is {@link Scope#USER}.
+     *
+     * @param sender  The sender
+     * @param message The message which caused the execution, may be null
+     * @return <code>0</code> if the execution is allowed,
+     *         or the time (in milliseconds, at least 1) to wait before the execution is allowed
+     */
+    public long tryAcquire(CommandSender sender, @Nullable Message message) {
+        if (!(sender instanceof User)) {
+            return 0L; // the console does not use the permits, even if the scope is global
+        }
+        if (scope == Scope.GLOBAL) {
+            return tryAcquire(0L);
+        }
+        if (scope == Scope.GUILD && message instanceof ChannelMessage) {
+            return tryAcquire(hash(((ChannelMessage) message).getChannel().getGuild().getId()));
+        }
+        return tryAcquire(hash(((User) sender).getId()));
+    }
+
+    /**
+     * Try to use a permit for the provided key (e.g. user ID), the key is ignored if the scope is {@link Scope#GLOBAL}.
+     *
+     * @param key The key
+     * @return <code>0</code> if the execution is allowed,
+     *         or the time (in milliseconds, at least 1) to wait before the execution is allowed
+     */
+    public long tryAcquire(String key) {
+        Validate.notNull(key);
+        return tryAcquire(scope == Scope.GLOBAL ? 0L : hash(key));
+    }
+
+    /**
+     * Get the scope of this cooldown.
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Get the maximum count of the executions in the window.
+     */
+    public int getPermits() {
+        return permits;
+    }
+
+    /**
+     * Get the window in the provided unit.
+     *
+     * @param unit The unit
+     */
+    public long getWindow(TimeUnit unit) {
+        return unit.convert(window, TimeUnit.NANOSECONDS);
+    }
+
+    // Generic cell rate algorithm: each execution moves the idle time forward by the interval,
+    //  the execution is rejected if the idle time would be too far ahead of now.
+    private synchronized long tryAcquire(long key) {
+        final long now = System.nanoTime();
+        final int start = (int) (key ^ (key >>> 32)) & mask;
+        int slot = -1;
+        int free = -1;
+        int soonest = start;
+        for (int i = 0; i < Math.min(PROBES, mask + 1); i++) {
+            final int index = (start + i) & mask;
+            final boolean idle = idleTimes[index] - now <= 0;
+            if (!idle && keys[index] == key) {
+                slot = index;
+                break;
+            }
+            if (idle && free == -1) {
+                free = index;
+            }
+            if (idleTimes[index] - idleTimes[soonest] < 0) {
+                soonest = index;
+            }
+        }
+        if (slot == -1) {
+            // new key, use a free entry, or evict the one closest to expiry
+            slot = free != -1 ? free : soonest;
+            keys[slot] = key;
+            idleTimes[slot] = now;
+        }
+        final long idleTime = Math.max(idleTimes[slot] - now, 0L) + now;
+        final long ahead = idleTime - now;
+        if (ahead > tolerance) {
+            return Math.max(1L, TimeUnit.NANOSECONDS.toMillis(ahead - tolerance));
+        }
+        idleTimes[slot] = idleTime + interval;
+        return 0L;
+    }
+
+    // 64-bit FNV-1a, the string is not stored.
+    private static long hash(String s) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            hash = (hash ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Represents the targets which share the same limit.
+     */
+    public enum Scope {
+        /**
+         * Each user has its own limit.
+         */
+        USER,
+        /**
+         * All users in the same guild share the limit.
+         */
+        GUILD,
+        /**
+         * All users share the limit.
+         */
+        GLOBAL
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import snw.jkook.entity.User;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+// The implementations of ExecutionPolicy.
+final class ExecutionPolicies {
+
+    private ExecutionPolicies() {
+    }
+
+    static final class Inline implements ExecutionPolicy {
+        static final Inline INSTANCE = new Inline();
+
+        private Inline() {
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(CommandSender sender, Runnable task) {
+            final CompletableFuture<Void> result = new CompletableFuture<>();
+            try {
+                task.run();
+                result.complete(null);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } catch (Error e) {
+                result.completeExceptionally(e);
+                throw e; // don't hide the errors (e.g. OutOfMemoryError) from the caller
+            }
+            return result;
+        }
+    }
+
+    static final class SerializedPerSender implements ExecutionPolicy {
+        private static final Object NULL_SENDER = new Object();
+        private final Executor executor;
+        // the last execution of each sender, removed when it is done and nothing follows it
+        private final Map<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+        SerializedPerSender(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public CompletableFuture<Void> execute(CommandSender sender, Runnable task) {
+            final Object key = sender instanceof User ? ((User) sender).getId() : sender == null ? NULL_SENDER : sender;
+            final CompletableFuture<Void> start = new CompletableFuture<>();
+            final CompletableFuture<Void> result = start.thenRunAsync(task, executor);
+            // only the uncompleted stage is put into the map, the task is submitted after the map is updated,
+            //  so the task never runs while the map is locked (e.g. with a caller-runs executor)
+            final CompletableFuture<Void> tail = tails.put(key, result);
+            result.whenComplete((ignored, e) -> tails.remove(key, result));
+            if (tail == null) {
+                start.complete(null);
+            } else {
+                tail.whenComplete((ignored, e) -> start.complete(null));
+            }
+            return result;
+        }
+    }
+}
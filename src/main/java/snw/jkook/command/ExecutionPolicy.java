@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import snw.jkook.util.Validate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Decides which thread executes a command. <p>
+ * By default, the commands are executed by the thread which calls {@link CommandManager#executeCommand},
+ *  usually the event thread, so a slow command (e.g. a database query) delays everything behind it.
+ * Use {@link #async(Executor)} or {@link #serializedPerSender(Executor)} for such commands. <p>
+ * The implementations of {@link CommandManager} should execute the commands by
+ *  {@link #execute(CommandSender, Runnable)} of the policy provided by {@link JKookCommand#getExecutionPolicy()}.
+ *
+ * @see JKookCommand#setExecutionPolicy(ExecutionPolicy)
+ */
+public interface ExecutionPolicy {
+
+    /**
+     * Execute the provided task (the execution of a command) according to this policy.
+     *
+     * @param sender The sender of the command
+     * @param task   The task
+     * @return The future which will be completed when the task is done,
+     *         it will be completed exceptionally if the task threw an exception
+     */
+    CompletableFuture<Void> execute(CommandSender sender, Runnable task);
+
+    /**
+     * Get the policy which executes the commands immediately on the calling thread. This is the default policy. <p>
+     * If the command throws an {@link Error}, the returned future is completed exceptionally and the error is rethrown.
+     */
+    static ExecutionPolicy inline() {
+        return ExecutionPolicies.Inline.INSTANCE;
+    }
+
+    /**
+     * Get the policy which executes the commands by the provided executor. <p>
+     * The executions of the same sender may run at the same time.
+     *
+     * @param executor The executor
+     */
+    static ExecutionPolicy async(Executor executor) {
+        Validate.notNull(executor);
+        return (sender, task) -> CompletableFuture.runAsync(task, executor);
+    }
+
+    /**
+     * Get the policy which executes the commands by the provided executor,
+     *  but the executions of the same sender run one by one, in the order they were requested. <p>
+     * The users are identified by their ID, the other senders are identified by themselves.
+     * An execution which failed does not stop the following executions.
+     *
+     * @param executor The executor
+     */
+    static ExecutionPolicy serializedPerSender(Executor executor) {
+        Validate.notNull(executor);
+        return new ExecutionPolicies.SerializedPerSender(executor);
+    }
+}
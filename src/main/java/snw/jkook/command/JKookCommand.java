@@ -36,6 +36,9 @@ public final class JKookCommand {
     private final OptionalArgumentContainer optionalArguments = new OptionalArgumentContainer();
     private String description;
     private String helpContent;
+    private ExecutionPolicy executionPolicy = ExecutionPolicy.inline();
+    private final Collection<Cooldown> cooldowns = new ArrayList<>();
+    private final CommandMetrics metrics = new CommandMetrics();
 
     private boolean registerFlag = false; // just a flag!
 
@@ -153,6 +156,32 @@ public final class JKookCommand {
         return this;
     }
 
+    /**
+     * Set the execution policy of this command, which decides the thread that executes this command. <p>
+     * The default policy is {@link ExecutionPolicy#inline()}.
+     *
+     * @param executionPolicy The execution policy
+     */
+    public JKookCommand setExecutionPolicy(ExecutionPolicy executionPolicy) {
+        ensureNotRegistered();
+        Validate.notNull(executionPolicy);
+        this.executionPolicy = executionPolicy;
+        return this;
+    }
+
+    /**
+     * Add a cooldown to this command. <p>
+     * The execution is rejected if any cooldown of this command rejects it.
+     *
+     * @param cooldown The cooldown
+     */
+    public JKookCommand addCooldown(Cooldown cooldown) {
+        ensureNotRegistered();
+        Validate.notNull(cooldown);
+        cooldowns.add(cooldown);
+        return this;
+    }
+
     /**
      * Add a prefix to this command.
      * @param prefix The prefix to be added
@@ -279,6 +308,27 @@ public final class JKookCommand {
         return helpContent;
     }
 
+    /**
+     * Get the execution policy of this command.
+     */
+    public ExecutionPolicy getExecutionPolicy() {
+        return executionPolicy;
+    }
+
+    /**
+     * Get the cooldowns of this command.
+     */
+    public Collection<Cooldown> getCooldowns() {
+        return Collections.unmodifiableCollection(cooldowns);
+    }
+
+    /**
+     * Get the execution statistics of this command.
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Get the argument classes of this command.
      */
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotation for marking the method which executes a subcommand. <p>
+ * The parent command must be declared by the same object, by {@link Command} or another {@link Subcommand}.
+ * The parameters of the method are the same as {@link Command}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Subcommand {
+
+    /**
+     * The name of the subcommand.
+     */
+    String value();
+
+    /**
+     * The path of the parent command, the names are separated by spaces (e.g. "admin user").
+     */
+    String parent();
+
+    /**
+     * The aliases of the subcommand.
+     */
+    String[] aliases() default {};
+
+    /**
+     * The description of the subcommand.
+     */
+    String description() default "";
+
+    /**
+     * The help content of the subcommand.
+     */
+    String helpContent() default "";
+}
@@ -138,7 +138,8 @@ public interface User extends Nameable, AvatarHolder, CommandSender {
     String sendPrivateMessage(String message, PrivateMessage quote);
 
     /**
-     * Send a component to this user.
+     * Send a component to this user. <p>
+     * Use {@link snw.jkook.message.component.PreparedComponent} if you send the same component many times.
      *
      * @param component The component to send
      * @return The Message ID
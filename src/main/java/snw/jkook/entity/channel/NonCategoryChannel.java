@@ -61,7 +61,8 @@ public interface NonCategoryChannel extends Channel, InviteHolder {
     String sendComponent(String message, @Nullable ChannelMessage quote, @Nullable User tempTarget);
 
     /**
-     * Send a message to this channel.
+     * Send a message to this channel. <p>
+     * Use {@link snw.jkook.message.component.PreparedComponent} if you send the same component many times.
      *
      * @param component The message to send
      * @return Message ID
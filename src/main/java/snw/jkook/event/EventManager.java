@@ -16,6 +16,8 @@
 
 package snw.jkook.event;
 
+import snw.jkook.event.user.UserClickButtonEvent;
+import snw.jkook.message.component.card.ButtonCallbackRegistry;
 import snw.jkook.plugin.Plugin;
 
 /**
@@ -26,7 +28,9 @@ public interface EventManager {
     /**
      * Call an event. The listeners of the provided event type will be called. <p>
      * This method won't return until all listener methods which are subscribed on the type of
-     *  the provided event got called and returned.
+     *  the provided event got called and returned. <p>
+     * If the event is a {@link UserClickButtonEvent} which is handled by a registry registered by
+     *  {@link #registerButtonCallbacks(Plugin, ButtonCallbackRegistry)}, the listeners won't be called.
      *
      * @param event The event to call
      */
@@ -61,7 +65,33 @@ public interface EventManager {
 
     /**
      * Unregister all handlers that is registered by provided plugin.
+     * The button callback registries registered by the plugin are unregistered too.
      * @param plugin The plugin as the owner of Listeners
      */
     void unregisterAllHandlers(Plugin plugin);
+
+    /**
+     * Register a registry of button callbacks. <p>
+     * When a {@link UserClickButtonEvent} is called, {@link ButtonCallbackRegistry#dispatch(UserClickButtonEvent)}
+     *  of the registered registries is called before any listener. If a registry returns true,
+     *  the click is handled and the event is not passed to the other registries and the listeners.
+     * Otherwise, the event is passed to the listeners as usual.
+     *
+     * @param plugin   The plugin as the registry's owner
+     * @param registry The registry to register
+     * @throws UnsupportedOperationException Thrown if this event manager does not support button callbacks
+     */
+    default void registerButtonCallbacks(Plugin plugin, ButtonCallbackRegistry registry) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("registerButtonCallbacks");
+    }
+
+    /**
+     * Unregister the specified registry of button callbacks, the clicks won't be routed to it.
+     *
+     * @param registry The registry to unregister
+     * @throws UnsupportedOperationException Thrown if this event manager does not support button callbacks
+     */
+    default void unregisterButtonCallbacks(ButtonCallbackRegistry registry) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("unregisterButtonCallbacks");
+    }
 }
@@ -23,7 +23,8 @@ import snw.jkook.entity.channel.NonCategoryChannel;
 import java.util.Objects;
 
 /**
- * Represents the event that means a user clicked a button in a message.
+ * Represents the event that means a user clicked a button in a message. <p>
+ * Use {@link snw.jkook.message.component.card.ButtonCallbackRegistry} to route the clicks to the handlers of the buttons directly.
  */
 public class UserClickButtonEvent extends UserEvent {
 
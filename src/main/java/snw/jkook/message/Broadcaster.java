@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message;
+
+import snw.jkook.entity.User;
+import snw.jkook.entity.channel.NonCategoryChannel;
+import snw.jkook.exceptions.BadResponseException;
+import snw.jkook.message.component.BaseComponent;
+import snw.jkook.util.Validate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Sends the same message to many targets (e.g. an announcement) with bounded concurrency. <p>
+ * At most {@code maxConcurrency} messages are being sent at the same time.
+ * If KOOK rejects a message because of the rate limit (response code <code>429</code>),
+ *  all sending is paused for a while and the rejected message is sent again,
+ *  the pause time is doubled each time the same message is rejected. <p>
+ * The same component object is used for all targets, so the implementation can encode it only once.
+ * You can also pass a {@link snw.jkook.message.component.PreparedComponent} to make sure that it is encoded only once.
+ * Example:
+ * <blockquote><pre>
+ * {@code
+ *     Broadcaster broadcaster = new Broadcaster(ioPool, 8);
+ *     Map<NonCategoryChannel, CompletableFuture<String>> results = broadcaster.sendComponent(channels, announcement);
+ *     results.forEach((channel, result) -> result.exceptionally(e -> {
+ *         getLogger().warn("Unable to send announcement to {}", channel.getId(), e);
+ *         return null;
+ *     }));
+ * }
+ * </pre></blockquote>
+ */
+public class Broadcaster {
+    /** The response code used by KOOK if the rate limit is exceeded. */
+    public static final int RATE_LIMITED = 429;
+
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final long initialBackoff;
+    private final int maxRetries;
+    private final AtomicLong pausedUntil = new AtomicLong();
+
+    /**
+     * The constructor with default rate limit handling. (At most 3 retries, 1 second as the initial pause time)
+     *
+     * @param executor       The executor used to send the messages
+     * @param maxConcurrency The maximum count of the messages being sent at the same time
+     */
+    public Broadcaster(Executor executor, int maxConcurrency) {
+        this(executor, maxConcurrency, 1000L, 3);
+    }
+
+    /**
+     * The main constructor.
+     *
+     * @param executor       The executor used to send the messages
+     * @param maxConcurrency The maximum count of the messages being sent at the same time
+     * @param initialBackoff The pause time after the first rejection caused by the rate limit, in milliseconds
+     * @param maxRetries     The maximum count of the retries for each target, <code>0</code> if you don't want any retry
+     */
+    public Broadcaster(Executor executor, int maxConcurrency, long initialBackoff, int maxRetries) {
+        Validate.notNull(executor, "The executor cannot be null.");
+        Validate.isTrue(maxConcurrency > 0, "The maximum concurrency must be positive.");
+        Validate.isTrue(initialBackoff >= 0, "The backoff time cannot be negative.");
+        Validate.isTrue(maxRetries >= 0, "The maximum count of the retries cannot be negative.");
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.initialBackoff = initialBackoff;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Send the component to the provided channels.
+     *
+     * @param channels  The channels
+     * @param component The component to send
+     * @return The futures of the message IDs, one per channel, in the iteration order of the provided collection
+     * @see NonCategoryChannel#sendComponent(BaseComponent)
+     */
+    public Map<NonCategoryChannel, CompletableFuture<String>> sendComponent(Collection<? extends NonCategoryChannel> channels, BaseComponent component) {
+        Validate.notNull(component);
+        return send(channels, channel -> channel.sendComponent(component));
+    }
+
+    /**
+     * Send the component to the provided users as a private message.
+     *
+     * @param users     The users
+     * @param component The component to send
+     * @return The futures of the message IDs, one per user, in the iteration order of the provided collection
+     * @see User#sendPrivateMessage(BaseComponent)
+     */
+    public Map<User, CompletableFuture<String>> sendPrivateMessage(Collection<? extends User> users, BaseComponent component) {
+        Validate.notNull(component);
+        return send(users, user -> user.sendPrivateMessage(component));
+    }
+
+    /**
+     * Perform the provided send operation for each target. <p>
+     * Duplicated targets are sent only once.
+     *
+     * @param targets The targets
+     * @param action  The send operation, returns the message ID
+     * @param <T>     The type of the targets
+     * @return The futures of the results, one per target, in the iteration order of the provided collection
+     */
+    public <T> Map<T, CompletableFuture<String>> send(Collection<? extends T> targets, Function<? super T, String> action) {
+        Validate.notNull(targets);
+        Validate.notNull(action);
+        final Map<T, CompletableFuture<String>> results = new LinkedHashMap<>();
+        for (T target : targets) {
+            Validate.notNull(target, "The targets cannot contain null.");
+            results.putIfAbsent(target, new CompletableFuture<>());
+        }
+        final Iterator<Map.Entry<T, CompletableFuture<String>>> queue = results.entrySet().iterator();
+        final int workerCount = Math.min(maxConcurrency, results.size());
+        for (int i = 0; i < workerCount; i++) {
+            executor.execute(() -> {
+                Map.Entry<T, CompletableFuture<String>> entry;
+                while ((entry = poll(queue)) != null) {
+                    try {
+                        entry.getValue().complete(sendWithRetry(entry.getKey(), action));
+                    } catch (InterruptedException e) {
+                        // the executor is shutting down, don't leave the remaining futures incomplete
+                        Thread.currentThread().interrupt();
+                        entry.getValue().completeExceptionally(e);
+                        while ((entry = poll(queue)) != null) {
+                            entry.getValue().completeExceptionally(e);
+                        }
+                        return;
+                    } catch (Throwable e) {
+                        entry.getValue().completeExceptionally(e);
+                    }
+                }
+            });
+        }
+        return Collections.unmodifiableMap(results);
+    }
+
+    private static <E> E poll(Iterator<E> queue) {
+        synchronized (queue) {
+            return queue.hasNext() ? queue.next() : null;
+        }
+    }
+
+    private <T> String sendWithRetry(T target, Function<? super T, String> action) throws InterruptedException {
+        long backoff = initialBackoff;
+        for (int attempt = 0; ; attempt++) {
+            final long wait = pausedUntil.get() - System.currentTimeMillis();
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+            try {
+                return action.apply(target);
+            } catch (BadResponseException e) {
+                if (e.getCode() != RATE_LIMITED || attempt >= maxRetries) {
+                    throw e;
+                }
+                // pause all workers, not only this one, because the rate limit is shared
+                pausedUntil.accumulateAndGet(System.currentTimeMillis() + backoff, Math::max);
+                backoff *= 2;
+            }
+        }
+    }
+}
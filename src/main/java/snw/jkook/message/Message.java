@@ -89,7 +89,8 @@ public interface Message extends Receivable, ReactionHolder {
     String sendToSource(String message);
 
     /**
-     * Send a component <b>as the reply</b> of this message.
+     * Send a component <b>as the reply</b> of this message. <p>
+     * Use {@link snw.jkook.message.component.PreparedComponent} if you send the same component many times.
      *
      * @param component   The component
      * @return            The Message ID
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message;
+
+import snw.jkook.entity.User;
+import snw.jkook.message.component.BaseComponent;
+import snw.jkook.message.component.PreparedComponent;
+import snw.jkook.message.component.TemplateMessage;
+import snw.jkook.message.component.TextComponent;
+import snw.jkook.message.component.card.CardComponent;
+import snw.jkook.message.component.card.CardSerializer;
+import snw.jkook.message.component.card.MultipleCardComponent;
+import snw.jkook.util.Validate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Edits messages without sending redundant updates (e.g. a progress card updated many times per second). <p>
+ * This editor remembers a hash of the last content sent for each message, the edit is skipped
+ *  if the content is the same as the last one. <p>
+ * The edits of the same message within the window are coalesced: the first edit is sent immediately,
+ *  the following edits only replace the pending content, and the latest content is sent when the window ends.
+ * So at most one update per window is sent for each message. <p>
+ * The updates are sent by the provided executor, the futures returned by this class are completed
+ *  with <code>true</code> if the content has been sent, or <code>false</code> if the edit was not needed.
+ * The edits which are replaced by a later edit share the future of the later one. <p>
+ * Only the components which can be compared (text, card, template and {@link PreparedComponent}) are checked,
+ *  other components are always sent. <p>
+ * Example:
+ * <blockquote><pre>
+ * {@code
+ *     MessageEditor editor = new MessageEditor(scheduler, 1, TimeUnit.SECONDS);
+ *     for (int i = 0; i <= 100; i++) {
+ *         editor.setComponent(progressMessage, progressCard(i)); // at most one HTTP request per second
+ *     }
+ * }
+ * </pre></blockquote>
+ */
+public class MessageEditor {
+    private final ScheduledExecutorService executor;
+    private final long window;
+    private final int maxTracked;
+    private final Map<String, State> states;
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * The constructor which tracks at most 1024 messages.
+     *
+     * @param executor The executor used to send the updates
+     * @param window   The window, the edits of the same message within it are coalesced, <code>0</code> for no delay
+     *                 (the edits made while an update of the same message is being sent are still coalesced)
+     * @param unit     The unit of the window
+     */
+    public MessageEditor(ScheduledExecutorService executor, long window, TimeUnit unit) {
+        this(executor, window, unit, 1024);
+    }
+
+    /**
+     * The main constructor.
+     *
+     * @param executor   The executor used to send the updates
+     * @param window     The window, the edits of the same message within it are coalesced, <code>0</code> for no delay
+     *                   (the edits made while an update of the same message is being sent are still coalesced)
+     * @param unit       The unit of the window
+     * @param maxTracked The maximum count of the messages whose last content is remembered,
+     *                   the least recently edited one is forgotten if it is exceeded
+     *                   (the messages whose updates are pending or being sent are never forgotten)
+     */
+    public MessageEditor(ScheduledExecutorService executor, long window, TimeUnit unit, int maxTracked) {
+        Validate.notNull(executor, "The executor cannot be null.");
+        Validate.notNull(unit, "The unit cannot be null.");
+        Validate.isTrue(window >= 0, "The window cannot be negative.");
+        Validate.isTrue(maxTracked > 0, "The maximum count of the tracked messages must be positive.");
+        this.executor = executor;
+        this.window = unit.toNanos(window);
+        this.maxTracked = maxTracked;
+        this.states = new LinkedHashMap<>(16, 0.75F, true); // trimmed by trim(State)
+    }
+
+    /**
+     * Set the component of the provided message, if it is different from the last one.
+     *
+     * @param message   The message
+     * @param component The component
+     * @return The future which will be completed with <code>true</code> if the content has been sent
+     * @see Message#setComponent(BaseComponent)
+     */
+    public CompletableFuture<Boolean> setComponent(Message message, BaseComponent component) {
+        Validate.notNull(message);
+        return edit(message.getId(), component, c -> message.setComponent(c));
+    }
+
+    /**
+     * Temporary set the component of the provided message for the provided user, if it is different from the last one.
+     *
+     * @param message   The message
+     * @param user      The user as the receiver of the new component
+     * @param component The component
+     * @return The future which will be completed with <code>true</code> if the content has been sent
+     * @see ChannelMessage#setComponentTemp(User, BaseComponent)
+     */
+    public CompletableFuture<Boolean> setComponentTemp(ChannelMessage message, User user, BaseComponent component) {
+        Validate.notNull(message);
+        Validate.notNull(user);
+        // the temporary content of each user is tracked separately
+        return edit(message.getId() + '/' + user.getId(), component, c -> message.setComponentTemp(user, c));
+    }
+
+    /**
+     * Forget the last content of the provided message, so the next edit of it will always be sent. <p>
+     * The pending edit of the message is still sent, and it is still sent before the later edits.
+     *
+     * @param messageId The message ID
+     */
+    public void forget(String messageId) {
+        synchronized (states) {
+            final Iterator<Map.Entry<String, State>> iterator = states.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, State> entry = iterator.next();
+                final String key = entry.getKey();
+                if (key.equals(messageId) || key.startsWith(messageId + '/')) {
+                    final State state = entry.getValue();
+                    if (tryRemove(state)) {
+                        iterator.remove();
+                    } else {
+                        synchronized (state) {
+                            // the next edit is sent after the pending one
+                            state.forgotten = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the count of the edits requested by {@link #setComponent} and {@link #setComponentTemp}.
+     */
+    public long getRequestedEdits() {
+        return requested.sum();
+    }
+
+    /**
+     * Get the count of the updates actually sent.
+     */
+    public long getSentEdits() {
+        return sent.sum();
+    }
+
+    /**
+     * Get the count of the edits skipped because the content was not changed.
+     */
+    public long getSkippedEdits() {
+        return skipped.sum();
+    }
+
+    /**
+     * Get the count of the edits replaced by a later edit within the window.
+     */
+    public long getCoalescedEdits() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Get the count of the HTTP requests saved by this editor. (skipped + coalesced)
+     */
+    public long getSavedEdits() {
+        return getSkippedEdits() + getCoalescedEdits();
+    }
+
+    private CompletableFuture<Boolean> edit(String key, BaseComponent component, Consumer<BaseComponent> action) {
+        Validate.notNull(component);
+        requested.increment();
+        final Long hash = hash(component);
+        while (true) {
+            final State state;
+            synchronized (states) {
+                state = states.computeIfAbsent(key, k -> new State(System.nanoTime() - window));
+                trim(state);
+            }
+            synchronized (state) {
+                if (!state.removed) {
+                    return edit(state, component, hash, action);
+                }
+            }
+            // removed after it was got from the map, get the new one
+        }
+    }
+
+    // Called with the lock of the state held.
+    private CompletableFuture<Boolean> edit(State state, BaseComponent component, Long hash, Consumer<BaseComponent> action) {
+        if (state.pending != null) {
+            // replace the pending edit, it has not been sent yet
+            coalesced.increment();
+            state.pending = component;
+            state.pendingHash = hash;
+            state.pendingAction = action;
+            return state.pendingResult;
+        }
+        if (!state.busy && !state.forgotten && hash != null && hash.equals(state.lastHash)) {
+            skipped.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+        state.pending = component;
+        state.pendingHash = hash;
+        state.pendingAction = action;
+        final CompletableFuture<Boolean> result = state.pendingResult = new CompletableFuture<>();
+        if (!state.busy) {
+            state.busy = true;
+            schedule(state);
+        }
+        return result;
+    }
+
+    // Remove the least recently edited states which are not busy, except the provided one. Called with the lock of the map held.
+    private void trim(State keep) {
+        final Iterator<State> iterator = states.values().iterator();
+        int size = states.size();
+        while (size > maxTracked && iterator.hasNext()) {
+            final State state = iterator.next();
+            if (state != keep && tryRemove(state)) {
+                iterator.remove();
+                size--;
+            }
+        }
+    }
+
+    // Mark the state as removed and return true if it is not busy.
+    // The busy one is kept, or the next edit with a new state could be sent before its pending one.
+    private static boolean tryRemove(State state) {
+        synchronized (state) {
+            if (state.busy) {
+                return false;
+            }
+            state.removed = true;
+            return true;
+        }
+    }
+
+    // Send the pending edit when the window since the last update ends. Called with the lock of the state held.
+    private void schedule(State state) {
+        final long delay = state.lastSent + window - System.nanoTime();
+        try {
+            if (delay <= 0) {
+                executor.execute(() -> flush(state));
+            } else {
+                executor.schedule(() -> flush(state), delay, TimeUnit.NANOSECONDS);
+            }
+        } catch (RejectedExecutionException e) { // e.g. the executor has been shut down
+            final CompletableFuture<Boolean> result = state.pendingResult;
+            state.busy = false;
+            state.pending = null;
+            state.pendingHash = null;
+            state.pendingAction = null;
+            state.pendingResult = null;
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void flush(State state) {
+        final BaseComponent component;
+        final Long hash;
+        final Consumer<BaseComponent> action;
+        final CompletableFuture<Boolean> result;
+        synchronized (state) {
+            component = state.pending;
+            hash = state.pendingHash;
+            action = state.pendingAction;
+            result = state.pendingResult;
+            state.pending = null;
+            state.pendingHash = null;
+            state.pendingAction = null;
+            state.pendingResult = null;
+            if (state.forgotten) {
+                state.forgotten = false;
+                state.lastHash = null;
+            }
+        }
+        try {
+            if (hash != null && hash.equals(state.lastHash)) {
+                // changed and then changed back within the window
+                skipped.increment();
+                result.complete(false);
+            } else {
+                state.lastSent = System.nanoTime();
+                action.accept(component);
+                state.lastHash = hash;
+                sent.increment();
+                result.complete(true);
+            }
+        } catch (Throwable e) {
+            state.lastHash = null; // unknown state, the next edit will be sent
+            result.completeExceptionally(e);
+        } finally {
+            synchronized (state) {
+                if (state.pending != null) {
+                    schedule(state);
+                } else {
+                    state.busy = false;
+                }
+            }
+        }
+    }
+
+    // Return a 64-bit hash of the encoded content, or null if the component can't be compared.
+    private static Long hash(BaseComponent component) {
+        final Hasher hasher = new Hasher();
+        try {
+            if (component instanceof PreparedComponent) {
+                final PreparedComponent prepared = (PreparedComponent) component;
+                hasher.append((char) prepared.getType());
+                final ByteBuffer content = prepared.getContent();
+                while (content.hasRemaining()) {
+                    hasher.append((char) content.get());
+                }
+            } else if (component instanceof MultipleCardComponent) {
+                CardSerializer.serialize((MultipleCardComponent) component, hasher.append('C'));
+            } else if (component instanceof CardComponent) {
+                CardSerializer.serialize((CardComponent) component, hasher.append('C'));
+            } else if (component instanceof TextComponent) {
+                hasher.append(component.getClass().getName()).append(component.toString());
+            } else if (component instanceof TemplateMessage) {
+                final TemplateMessage template = (TemplateMessage) component;
+                hasher.append('T').append(String.valueOf(template.getId())).append((char) template.getType())
+                        .append(template.getContent());
+            } else {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // should not happen, Hasher never throws it
+        }
+        return hasher.hash;
+    }
+
+    private static final class State {
+        // written by the sending thread, read by the editing threads
+        private volatile Long lastHash;
+        private volatile long lastSent;
+        // guarded by the lock of this object
+        private boolean busy; // true if an update is pending or being sent
+        private boolean removed; // removed from the map, the edits must use the new state
+        private boolean forgotten; // forget() was called while it was busy
+        private BaseComponent pending;
+        private Long pendingHash;
+        private Consumer<BaseComponent> pendingAction;
+        private CompletableFuture<Boolean> pendingResult;
+
+        private State(long lastSent) {
+            this.lastSent = lastSent;
+        }
+    }
+
+    // Computes the 64-bit FNV-1a hash of the appended characters, so the content is not stored.
+    private static final class Hasher implements Appendable {
+        private long hash = 0xcbf29ce484222325L;
+
+        @Override
+        public Hasher append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Hasher append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Hasher append(char c) {
+            hash = (hash ^ c) * 0x100000001b3L;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component;
+
+import org.jetbrains.annotations.Nullable;
+import snw.jkook.message.component.card.CardComponent;
+import snw.jkook.message.component.card.CardSerializer;
+import snw.jkook.message.component.card.MultipleCardComponent;
+import snw.jkook.util.Validate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Represents a component which has already been encoded. <p>
+ * It holds the message type and the value of the <code>content</code> field in the request body of KOOK message API,
+ *  encoded as a JSON string literal (including the quotes) using UTF-8.
+ * So the API implementations can write these bytes into the request body directly,
+ *  instead of encoding the component again every time it is sent. <p>
+ * The cards are encoded using {@link CardSerializer}. <p>
+ * Use it when you send the same component many times (e.g. a help card):
+ * <blockquote><pre>
+ * {@code
+ *     PreparedComponent help = PreparedComponent.of(new MarkdownComponent("**Help**\n..."));
+ *     channel.sendComponent(help);
+ * }
+ * </pre></blockquote>
+ */
+public final class PreparedComponent extends BaseComponent {
+    /** The message type of plain text. */
+    public static final int TYPE_TEXT = 1;
+    /** The message type of KMarkdown. */
+    public static final int TYPE_KMARKDOWN = 9;
+    /** The message type of card. */
+    public static final int TYPE_CARD = 10;
+
+    private final int type;
+    private final byte[] content;
+    private final BaseComponent source;
+    private int hash;
+
+    /**
+     * The constructor for API implementations, which encode the components by themselves.
+     * The provided array won't be copied, so <b>DO NOT</b> modify it after calling this.
+     *
+     * @param type    The message type (e.g. {@link #TYPE_CARD})
+     * @param content The JSON string literal of the content, encoded using UTF-8
+     * @param source  The component which was encoded, null if it is unknown
+     */
+    public PreparedComponent(int type, byte[] content, @Nullable BaseComponent source) {
+        Validate.notNull(content, "The content cannot be null.");
+        Validate.isTrue(content.length >= 2 && content[0] == '"' && content[content.length - 1] == '"',
+                "The content must be a JSON string literal.");
+        Validate.isFalse(source instanceof PreparedComponent, "The source cannot be a prepared component.");
+        this.type = type;
+        this.content = content;
+        this.source = source;
+    }
+
+    /**
+     * Encode the provided text component.
+     *
+     * @param component The component, {@link MarkdownComponent} is encoded as KMarkdown
+     * @return The prepared component
+     */
+    public static PreparedComponent of(TextComponent component) {
+        Validate.notNull(component);
+        final int type = component instanceof MarkdownComponent ? TYPE_KMARKDOWN : TYPE_TEXT;
+        return new PreparedComponent(type, quote(component.toString()), component);
+    }
+
+    /**
+     * Encode the provided card component using {@link CardSerializer}.
+     *
+     * @param component The component
+     * @return The prepared component
+     */
+    public static PreparedComponent of(MultipleCardComponent component) {
+        Validate.notNull(component);
+        return new PreparedComponent(TYPE_CARD, quote(CardSerializer.serialize(component)), component);
+    }
+
+    /**
+     * Encode the provided card component using {@link CardSerializer}.
+     *
+     * @param component The component
+     * @return The prepared component
+     */
+    public static PreparedComponent of(CardComponent component) {
+        Validate.notNull(component);
+        return new PreparedComponent(TYPE_CARD, quote(CardSerializer.serialize(new MultipleCardComponent(Collections.singletonList(component)))), component);
+    }
+
+    /**
+     * Get the message type of this component.
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Get the size of the encoded content in bytes.
+     */
+    public int getContentLength() {
+        return content.length;
+    }
+
+    /**
+     * Get the encoded content as a read-only buffer. No copy is made.
+     */
+    public ByteBuffer getContent() {
+        return ByteBuffer.wrap(content).asReadOnlyBuffer();
+    }
+
+    /**
+     * Write the encoded content to the provided stream.
+     *
+     * @param stream The stream
+     * @throws IOException Thrown if the stream throws it
+     */
+    public void writeContent(OutputStream stream) throws IOException {
+        stream.write(content);
+    }
+
+    /**
+     * Get the component which was encoded. <p>
+     * Null is returned if it is unknown.
+     */
+    @Nullable
+    public BaseComponent getSource() {
+        return source;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PreparedComponent that = (PreparedComponent) o;
+        return type == that.type && Arrays.equals(content, that.content);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = 31 * type + Arrays.hashCode(content);
+            hash = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedComponent{" +
+                "type=" + type +
+                ", content=" + new String(content, StandardCharsets.UTF_8) +
+                '}';
+    }
+
+    // Encode the provided string as a JSON string literal.
+    private static byte[] quote(CharSequence value) {
+        final StringBuilder builder = new StringBuilder(value.length() + 16);
+        try {
+            CardSerializer.writeString(builder, value);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder never throws IOException
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
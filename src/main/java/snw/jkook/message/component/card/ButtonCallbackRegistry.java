@@ -0,0 +1,190 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component.card;
+
+import snw.jkook.event.user.UserClickButtonEvent;
+import snw.jkook.message.component.card.element.BaseElement;
+import snw.jkook.message.component.card.element.ButtonElement;
+import snw.jkook.util.Validate;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Routes the clicks of the buttons to their handlers. <p>
+ * Usually every {@link UserClickButtonEvent} is received by every listener, and each listener compares
+ *  the value of the event with the buttons it knows. This registry maps the value of each button
+ *  to its handler, so the click is routed to the handler directly by one lookup. <p>
+ * The handlers expire after the provided time since they were registered,
+ *  and the oldest handlers are removed if there are too many handlers, so the memory usage is bounded. <p>
+ * Register the registry by {@link snw.jkook.event.EventManager#registerButtonCallbacks(snw.jkook.plugin.Plugin, ButtonCallbackRegistry)},
+ *  then the clicks are routed to the handlers before the event is passed to the listeners,
+ *  and the clicks which are handled are not passed to the listeners at all. <p>
+ * If the event manager does not support it, call {@link #dispatch(UserClickButtonEvent)} from your own listener instead,
+ *  in this case the click is still received by every other listener. <p>
+ * Example:
+ * <blockquote><pre>
+ * {@code
+ *     ButtonCallbackRegistry registry = new ButtonCallbackRegistry(10, TimeUnit.MINUTES, 10000);
+ *     getCore().getEventManager().registerButtonCallbacks(this, registry);
+ *     ButtonElement confirm = registry.button(Theme.PRIMARY, new PlainTextElement("Confirm"), event -> {
+ *         event.getUser().sendPrivateMessage("Confirmed!");
+ *     });
+ * }
+ * </pre></blockquote>
+ * This class is thread-safe.
+ */
+public final class ButtonCallbackRegistry {
+    private final long ttl;
+    private final int maxEntries;
+    private final String keyPrefix;
+    private final AtomicLong counter = new AtomicLong();
+    // insertion-ordered, and all entries have the same TTL, so the oldest entry always expires first
+    private final LinkedHashMap<String, Handler> handlers;
+
+    /**
+     * The main constructor.
+     *
+     * @param ttl        The time to live of the handlers
+     * @param unit       The unit of the time to live
+     * @param maxEntries The maximum count of the handlers, the oldest one is removed if it is exceeded
+     */
+    public ButtonCallbackRegistry(long ttl, TimeUnit unit, int maxEntries) {
+        Validate.notNull(unit, "The unit cannot be null.");
+        Validate.isTrue(ttl > 0, "The time to live must be positive.");
+        Validate.isTrue(maxEntries > 0, "The maximum count of the handlers must be positive.");
+        this.ttl = unit.toNanos(ttl);
+        this.maxEntries = maxEntries;
+        // the generated values are not predictable, so users can't trigger the handlers of other buttons
+        this.keyPrefix = "jkook-cb:" + Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36) + ':';
+        this.handlers = new LinkedHashMap<String, Handler>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Handler> eldest) {
+                return size() > ButtonCallbackRegistry.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Create a button with a generated value, its clicks will be routed to the provided handler.
+     *
+     * @param theme   The theme of the button
+     * @param text    The shown text of the button
+     * @param handler The handler
+     */
+    public ButtonElement button(Theme theme, BaseElement text, Consumer<UserClickButtonEvent> handler) {
+        return button(theme, keyPrefix + Long.toString(counter.incrementAndGet(), 36), text, handler);
+    }
+
+    /**
+     * Create a button with the provided value, its clicks will be routed to the provided handler.
+     * The previous handler of the same value is replaced.
+     *
+     * @param theme   The theme of the button
+     * @param value   The value of the button
+     * @param text    The shown text of the button
+     * @param handler The handler
+     */
+    public ButtonElement button(Theme theme, String value, BaseElement text, Consumer<UserClickButtonEvent> handler) {
+        final ButtonElement button = new ButtonElement(theme, value, ButtonElement.EventType.RETURN_VAL, text);
+        register(value, handler);
+        return button;
+    }
+
+    /**
+     * Register the handler for the buttons with the provided value.
+     * The previous handler of the same value is replaced.
+     *
+     * @param value   The value of the buttons
+     * @param handler The handler
+     */
+    public void register(String value, Consumer<UserClickButtonEvent> handler) {
+        Validate.notNull(value);
+        Validate.notNull(handler);
+        final Handler entry = new Handler(handler, System.nanoTime() + ttl);
+        synchronized (handlers) {
+            handlers.remove(value); // so it becomes the newest one
+            handlers.put(value, entry);
+        }
+    }
+
+    /**
+     * Unregister the handler of the provided value.
+     *
+     * @param value The value of the buttons
+     * @return True if there was a handler
+     */
+    public boolean unregister(String value) {
+        synchronized (handlers) {
+            return handlers.remove(value) != null;
+        }
+    }
+
+    /**
+     * Call the handler of the clicked button.
+     *
+     * @param event The event
+     * @return True if the handler was found and called, the event should not be passed to other listeners in this case
+     */
+    public boolean dispatch(UserClickButtonEvent event) {
+        Validate.notNull(event);
+        final Handler handler;
+        synchronized (handlers) {
+            expire();
+            handler = handlers.get(event.getValue());
+        }
+        if (handler == null) {
+            return false;
+        }
+        handler.callback.accept(event); // called without holding the lock
+        return true;
+    }
+
+    /**
+     * Get the count of the handlers which are not expired.
+     */
+    public int size() {
+        synchronized (handlers) {
+            expire();
+            return handlers.size();
+        }
+    }
+
+    // Remove the expired handlers, they are always the oldest ones. Called with the lock held.
+    private void expire() {
+        final long now = System.nanoTime();
+        final Iterator<Handler> iterator = handlers.values().iterator();
+        while (iterator.hasNext() && iterator.next().expireAt - now <= 0) {
+            iterator.remove();
+        }
+    }
+
+    private static final class Handler {
+        private final Consumer<UserClickButtonEvent> callback;
+        private final long expireAt;
+
+        private Handler(Consumer<UserClickButtonEvent> callback, long expireAt) {
+            this.callback = callback;
+            this.expireAt = expireAt;
+        }
+    }
+}
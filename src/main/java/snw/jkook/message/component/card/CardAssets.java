@@ -0,0 +1,268 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component.card;
+
+import snw.jkook.HttpAPI;
+import snw.jkook.entity.abilities.Accessory;
+import snw.jkook.message.component.card.element.BaseElement;
+import snw.jkook.message.component.card.element.ImageElement;
+import snw.jkook.message.component.card.module.BaseModule;
+import snw.jkook.message.component.card.module.ContainerModule;
+import snw.jkook.message.component.card.module.ContextModule;
+import snw.jkook.message.component.card.module.FileModule;
+import snw.jkook.message.component.card.module.ImageGroupModule;
+import snw.jkook.message.component.card.module.SectionModule;
+import snw.jkook.util.Validate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Represents the local files used by a card, which will be uploaded before sending the card. <p>
+ * Use {@link #add(Path)} or {@link #add(String, byte[])} to get a placeholder,
+ *  and use the placeholder as the source URL of {@link ImageElement} or {@link FileModule} (including its cover).
+ * Then {@link #upload(MultipleCardComponent, HttpAPI, Executor, int)} uploads the files referenced by the card in parallel
+ *  and returns a copy of the card using the URLs of the remote files. <p>
+ * Example:
+ * <blockquote><pre>
+ * {@code
+ *     CardAssets assets = new CardAssets();
+ *     MultipleCardComponent card = new CardBuilder()
+ *         .setTheme(Theme.PRIMARY)
+ *         .setSize(Size.LG)
+ *         .addModule(new ImageGroupModule(Arrays.asList(
+ *             new ImageElement(assets.add(Paths.get("avatar.png")), "avatar", false),
+ *             new ImageElement(assets.add("chart.png", chartBytes), "chart", false)
+ *         )))
+ *         .build();
+ *     assets.upload(card, JKook.getHttpAPI(), ioPool, 4).thenAccept(channel::sendComponent);
+ * }
+ * </pre></blockquote>
+ * The modules which don't reference any placeholder are reused in the resulting card. <p>
+ * Each file is uploaded only once: after its upload succeeds, the URL of the remote file is remembered
+ *  and the reference to the file (e.g. its content byte array) is released.
+ * So the same object can be used to upload many cards which share the assets,
+ *  and the later uploads only replace the placeholders.
+ * A file may be uploaded more than once only if the cards using it are being uploaded at the same time.
+ */
+public class CardAssets {
+    private static final String PLACEHOLDER_PREFIX = "jkook-asset://";
+
+    private final Map<String, Function<HttpAPI, String>> uploaders = new ConcurrentHashMap<>();
+    private final Map<String, String> resolved = new ConcurrentHashMap<>();
+    private int nextId;
+
+    /**
+     * Add a file on disk.
+     *
+     * @param path The path of the file
+     * @return The placeholder which can be used as the source URL in the card
+     */
+    public String add(Path path) {
+        Validate.notNull(path);
+        return add(api -> api.uploadFile(path));
+    }
+
+    /**
+     * Add a file which is already in memory.
+     *
+     * @param filename The name of the file (with the extension name)
+     * @param content  The content byte array of the file
+     * @return The placeholder which can be used as the source URL in the card
+     */
+    public String add(String filename, byte[] content) {
+        Validate.notNull(filename);
+        Validate.notNull(content);
+        return add(api -> api.uploadFile(filename, content));
+    }
+
+    /**
+     * Add a file using a custom upload function. (e.g. {@code api -> uploadCache.uploadFile(path)})
+     *
+     * @param uploader The function which uploads the file and returns its URL
+     * @return The placeholder which can be used as the source URL in the card
+     */
+    public synchronized String add(Function<HttpAPI, String> uploader) {
+        Validate.notNull(uploader);
+        final String placeholder = PLACEHOLDER_PREFIX + nextId++;
+        uploaders.put(placeholder, uploader);
+        return placeholder;
+    }
+
+    /**
+     * Upload the files referenced by the provided card, and return a copy of the card using the URLs of the remote files. <p>
+     * The files are uploaded in parallel using the executor, but at most {@code maxConcurrency} uploads are running at the same time.
+     * Each file is uploaded only once even if it is referenced multiple times,
+     *  the files which were uploaded by the previous calls are not uploaded again.
+     * If any upload fails, the returned future completes exceptionally,
+     *  the files which failed can be uploaded again by calling this method again.
+     *
+     * @param card           The card which uses the placeholders returned by this object
+     * @param api            The API used to upload the files
+     * @param executor       The executor used to perform the uploads
+     * @param maxConcurrency The maximum count of the uploads running at the same time
+     * @return The future of the card which is ready to send
+     * @throws IllegalArgumentException Thrown if the card references a placeholder which is not created by this object
+     */
+    public CompletableFuture<MultipleCardComponent> upload(MultipleCardComponent card, HttpAPI api, Executor executor, int maxConcurrency) throws IllegalArgumentException {
+        Validate.notNull(card);
+        Validate.notNull(api);
+        Validate.notNull(executor);
+        Validate.isTrue(maxConcurrency > 0, "The maximum concurrency must be positive.");
+
+        final Set<String> referenced = new LinkedHashSet<>();
+        rewrite(card, source -> {
+            if (isPlaceholder(source)) {
+                // check the uploaders first, the placeholder is added to the resolved map before it is removed from them
+                final boolean known = uploaders.containsKey(source) || resolved.containsKey(source);
+                Validate.isTrue(known, "Unknown asset placeholder: " + source);
+                if (!resolved.containsKey(source)) {
+                    referenced.add(source);
+                }
+            }
+            return source;
+        });
+        if (referenced.isEmpty()) {
+            return CompletableFuture.completedFuture(rewrite(card, this::resolve));
+        }
+
+        final Queue<String> queue = new ConcurrentLinkedQueue<>(referenced);
+        final int workerCount = Math.min(maxConcurrency, referenced.size());
+        final CompletableFuture<?>[] workers = new CompletableFuture<?>[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = CompletableFuture.runAsync(() -> {
+                String placeholder;
+                while ((placeholder = queue.poll()) != null) {
+                    final Function<HttpAPI, String> uploader = uploaders.get(placeholder);
+                    if (uploader != null) { // otherwise it was uploaded by another call
+                        resolved.put(placeholder, uploader.apply(api));
+                        uploaders.remove(placeholder, uploader);
+                    }
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(workers).thenApply(ignored -> rewrite(card, this::resolve));
+    }
+
+    private String resolve(String source) {
+        return isPlaceholder(source) ? resolved.get(source) : source;
+    }
+
+    private static boolean isPlaceholder(String source) {
+        return source != null && source.startsWith(PLACEHOLDER_PREFIX);
+    }
+
+    // The following methods return the original object if nothing has changed.
+
+    private static MultipleCardComponent rewrite(MultipleCardComponent card, UnaryOperator<String> mapper) {
+        final List<CardComponent> cards = new ArrayList<>(card.getComponents().size());
+        boolean changed = false;
+        for (CardComponent component : card.getComponents()) {
+            final CardComponent result = rewrite(component, mapper);
+            changed |= result != component;
+            cards.add(result);
+        }
+        return changed ? new MultipleCardComponent(cards) : card;
+    }
+
+    private static CardComponent rewrite(CardComponent card, UnaryOperator<String> mapper) {
+        final List<BaseModule> modules = new ArrayList<>(card.moduleCount());
+        boolean changed = false;
+        for (BaseModule module : card.getModules()) {
+            final BaseModule result = rewrite(module, mapper);
+            changed |= result != module;
+            modules.add(result);
+        }
+        return changed ? new CardComponent(modules, card.getSize(), card.getTheme(), card.getColor()) : card;
+    }
+
+    private static BaseModule rewrite(BaseModule module, UnaryOperator<String> mapper) {
+        if (module instanceof ImageGroupModule) {
+            final List<ImageElement> images = ((ImageGroupModule) module).getImages();
+            final List<ImageElement> result = rewriteElements(images, mapper);
+            return result == images ? module : new ImageGroupModule(result);
+        }
+        if (module instanceof ContainerModule) {
+            final List<ImageElement> images = ((ContainerModule) module).getImages();
+            final List<ImageElement> result = rewriteElements(images, mapper);
+            return result == images ? module : new ContainerModule(result);
+        }
+        if (module instanceof ContextModule) {
+            final List<BaseElement> elements = ((ContextModule) module).getModules();
+            final List<BaseElement> result = rewriteElements(elements, mapper);
+            return result == elements ? module : new ContextModule(result);
+        }
+        if (module instanceof SectionModule) {
+            final SectionModule section = (SectionModule) module;
+            final Accessory accessory = section.getAccessory();
+            if (accessory instanceof ImageElement) {
+                final ImageElement result = rewrite((ImageElement) accessory, mapper);
+                return result == accessory ? module : new SectionModule(section.getText(), result, section.getMode());
+            }
+            return module;
+        }
+        if (module instanceof FileModule) {
+            final FileModule file = (FileModule) module;
+            final String source = mapper.apply(file.getSource());
+            final String cover = mapper.apply(file.getCover());
+            if (source == file.getSource() && cover == file.getCover()) {
+                return module;
+            }
+            return new FileModule(file.getType(), source, file.getTitle(), cover);
+        }
+        return module;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends BaseElement> List<T> rewriteElements(List<T> elements, UnaryOperator<String> mapper) {
+        List<T> result = null;
+        for (int i = 0; i < elements.size(); i++) {
+            final T element = elements.get(i);
+            if (!(element instanceof ImageElement)) {
+                continue;
+            }
+            final ImageElement rewritten = rewrite((ImageElement) element, mapper);
+            if (rewritten != element) {
+                if (result == null) {
+                    result = new ArrayList<>(elements);
+                }
+                result.set(i, (T) rewritten);
+            }
+        }
+        return result == null ? elements : Collections.unmodifiableList(result);
+    }
+
+    private static ImageElement rewrite(ImageElement image, UnaryOperator<String> mapper) {
+        final String source = mapper.apply(image.getSource());
+        if (source == image.getSource()) {
+            return image;
+        }
+        return new ImageElement(source, image.getAlt(), image.getSize(), image.isCircled());
+    }
+}
@@ -19,18 +19,41 @@ package snw.jkook.message.component.card;
 import snw.jkook.message.component.card.module.BaseModule;
 import snw.jkook.util.Validate;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
- * Represents a card builder. Support multiple card.
+ * Represents a card builder. Support multiple card. <p>
+ * The modules and cards are stored in arrays, which are handed over to the built components without copying.
  */
 public class CardBuilder {
+    private static final int DEFAULT_MODULE_CAPACITY = 8;
+
     private Theme theme;
     private Size size;
     private String color;
-    private List<BaseModule> modules = new LinkedList<>();
-    private final List<CardComponent> cards = new LinkedList<>();
+    private BaseModule[] modules;
+    private int moduleCount;
+    private CardComponent[] cards = new CardComponent[1];
+    private int cardCount;
+    private boolean cardsShared; // true if the cards array is owned by a built component
+
+    /**
+     * The constructor with the default capacity.
+     */
+    public CardBuilder() {
+        this(DEFAULT_MODULE_CAPACITY);
+    }
+
+    /**
+     * The constructor with the expected module count of each card,
+     *  so the space for the modules can be allocated once.
+     *
+     * @param expectedModules The expected module count of each card
+     */
+    public CardBuilder(int expectedModules) {
+        Validate.isTrue(expectedModules > 0, "The expected module count must be positive.");
+        this.modules = new BaseModule[expectedModules];
+    }
 
     /**
      * Set theme of current card.
@@ -65,7 +88,10 @@ public class CardBuilder {
      * @param module The module
      */
     public CardBuilder addModule(BaseModule module) {
-        this.modules.add(module);
+        if (moduleCount == modules.length) {
+            modules = Arrays.copyOf(modules, moduleCount * 2);
+        }
+        modules[moduleCount++] = module;
         return this;
     }
 
@@ -93,9 +119,16 @@ public class CardBuilder {
         Validate.notNull(size, "Size is not defined yet!");
         Validate.isTrue(theme != null || color != null,
                 "Color-related property (theme or color) is not defined yet!");
-        cards.add(new CardComponent(modules, size, theme, color));
-        // create a new one instead of clear() to make sure the added component won't be empty.
-        modules = new LinkedList<>();
+        final BaseModule[] owned = moduleCount == modules.length ? modules : Arrays.copyOf(modules, moduleCount);
+        if (cardCount == cards.length || cardsShared) {
+            cards = Arrays.copyOf(cards, cardCount * 2);
+            cardsShared = false;
+        }
+        cards[cardCount++] = new CardComponent(owned, size, theme, color);
+        // create a new one instead of clearing it, because the old one is owned by the card now.
+        // the next card probably has a similar module count.
+        modules = new BaseModule[Math.max(moduleCount, 1)];
+        moduleCount = 0;
         theme = null;
         size = null;
         color = null;
@@ -106,10 +139,14 @@ public class CardBuilder {
      * Build the multiple card.
      */
     public MultipleCardComponent build() {
-        if (!modules.isEmpty()) {
+        if (moduleCount != 0) {
             newCard();
         }
-        return new MultipleCardComponent(cards);
+        if (cardCount == cards.length) {
+            cardsShared = true;
+            return new MultipleCardComponent(cards);
+        }
+        return new MultipleCardComponent(Arrays.copyOf(cards, cardCount));
     }
 
     @Override
@@ -118,8 +155,8 @@ public class CardBuilder {
                 "theme=" + theme +
                 ", size=" + size +
                 ", color='" + color + '\'' +
-                ", modules=" + modules +
-                ", cards=" + cards +
+                ", modules=" + Arrays.toString(Arrays.copyOf(modules, moduleCount)) +
+                ", cards=" + Arrays.toString(Arrays.copyOf(cards, cardCount)) +
                 '}';
     }
 }
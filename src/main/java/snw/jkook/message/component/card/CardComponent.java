@@ -21,9 +21,10 @@ import snw.jkook.message.component.BaseComponent;
 import snw.jkook.message.component.card.module.BaseModule;
 import snw.jkook.util.Validate;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents a card component.
@@ -33,6 +34,7 @@ public class CardComponent extends BaseComponent {
     private final Size size;
     private final Theme theme;
     private final String color;
+    private int hash;
 
     // This constructor is just for backwards compatibility.
     public CardComponent(List<BaseModule> modules, Size size, Theme theme) {
@@ -40,11 +42,16 @@ public class CardComponent extends BaseComponent {
     }
 
     public CardComponent(List<BaseModule> modules, Size size, Theme theme, @Nullable String color) {
+        this(modules.toArray(new BaseModule[0]), size, theme, color);
+    }
+
+    // The provided array is owned by this object after calling this, it won't be copied.
+    CardComponent(BaseModule[] modules, Size size, Theme theme, @Nullable String color) {
         Validate.isTrue(
                 size == Size.LG || size == Size.SM,
                 "Card object only accepts LG and SM size."
         );
-        this.modules = Collections.unmodifiableList(new LinkedList<>(modules));
+        this.modules = Collections.unmodifiableList(Arrays.asList(modules));
         this.size = size;
         this.theme = theme;
         this.color = color;
@@ -88,6 +95,24 @@ public class CardComponent extends BaseComponent {
         return color;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CardComponent that = (CardComponent) o;
+        return Objects.equals(modules, that.modules) && Objects.equals(size, that.size) && Objects.equals(theme, that.theme) && Objects.equals(color, that.color);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = Objects.hash(modules, size, theme, color);
+            hash = result;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "CardComponent{" +
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component.card;
+
+import snw.jkook.entity.abilities.Accessory;
+import snw.jkook.message.component.card.element.BaseElement;
+import snw.jkook.message.component.card.element.ButtonElement;
+import snw.jkook.message.component.card.element.ImageElement;
+import snw.jkook.message.component.card.element.InteractElement;
+import snw.jkook.message.component.card.element.PlainTextElement;
+import snw.jkook.message.component.card.module.ActionGroupModule;
+import snw.jkook.message.component.card.module.BaseModule;
+import snw.jkook.message.component.card.module.ContainerModule;
+import snw.jkook.message.component.card.module.ContextModule;
+import snw.jkook.message.component.card.module.HeaderModule;
+import snw.jkook.message.component.card.module.ImageGroupModule;
+import snw.jkook.message.component.card.module.SectionModule;
+import snw.jkook.message.component.card.structure.Paragraph;
+import snw.jkook.util.Validate;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Deduplicates the equal modules, elements and structures of the cards. <p>
+ * After interning, the equal parts of the cards (e.g. the same footer or buttons used by many cards)
+ *  are the same object, so the cards cached by plugins don't hold many copies of them.
+ * The parts are compared by their structure (see their {@code equals} method). <p>
+ * The encodings of the interned modules are cached too, so {@link CardSerializer#serialize(MultipleCardComponent, Appendable, CardInterner)}
+ *  can write them without encoding them again. <p>
+ * The objects are weakly referenced by this interner, they will be removed if they are not used anywhere else.
+ * This class is thread-safe.
+ */
+public final class CardInterner {
+    private final Map<CardScopeElement, WeakReference<CardScopeElement>> pool = new WeakHashMap<>();
+    private final Map<BaseModule, String> encodings = new WeakHashMap<>();
+
+    /**
+     * Intern the modules of the provided card.
+     *
+     * @param card The card
+     * @return The card using the interned modules, or the provided card if all modules are already interned
+     */
+    public MultipleCardComponent intern(MultipleCardComponent card) {
+        Validate.notNull(card);
+        final List<CardComponent> cards = card.getComponents();
+        final List<CardComponent> result = new ArrayList<>(cards.size());
+        boolean changed = false;
+        for (CardComponent component : cards) {
+            final CardComponent interned = intern(component);
+            changed |= interned != component;
+            result.add(interned);
+        }
+        return changed ? new MultipleCardComponent(result) : card;
+    }
+
+    /**
+     * Intern the modules of the provided card.
+     *
+     * @param card The card
+     * @return The card using the interned modules, or the provided card if all modules are already interned
+     */
+    public CardComponent intern(CardComponent card) {
+        Validate.notNull(card);
+        final List<BaseModule> modules = card.getModules();
+        final List<BaseModule> result = internAll(modules);
+        return result == modules ? card : new CardComponent(result, card.getSize(), card.getTheme(), card.getColor());
+    }
+
+    /**
+     * Intern the provided module, element or structure, including its children.
+     *
+     * @param element The object to intern
+     * @param <T>     The type of the object
+     * @return The interned object which is equal to the provided object
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends CardScopeElement> T intern(T element) {
+        Validate.notNull(element);
+        final CardScopeElement existing = lookup(element);
+        if (existing != null) {
+            return (T) existing;
+        }
+        final CardScopeElement rebuilt = internChildren(element);
+        pool.put(rebuilt, new WeakReference<>(rebuilt));
+        return (T) rebuilt;
+    }
+
+    /**
+     * Get the count of the interned objects which are still alive.
+     */
+    public synchronized int size() {
+        return pool.size();
+    }
+
+    // Return the cached encoding of the module, null if it is not interned.
+    synchronized String encoded(BaseModule module) {
+        String result = encodings.get(module);
+        if (result == null && lookup(module) != null) {
+            final StringBuilder builder = new StringBuilder(64);
+            try {
+                CardSerializer.serialize(module, builder);
+            } catch (IOException e) {
+                throw new AssertionError(e); // StringBuilder never throws IOException
+            }
+            result = builder.toString();
+            encodings.put((BaseModule) lookup(module), result);
+        }
+        return result;
+    }
+
+    private CardScopeElement lookup(CardScopeElement element) {
+        final WeakReference<CardScopeElement> reference = pool.get(element);
+        return reference == null ? null : reference.get();
+    }
+
+    // Return the object using the interned children, or the provided object if nothing has changed.
+    private CardScopeElement internChildren(CardScopeElement element) {
+        if (element instanceof ButtonElement) {
+            final ButtonElement button = (ButtonElement) element;
+            final BaseElement text = intern(button.getText());
+            return text == button.getText() ? button : new ButtonElement(button.getTheme(), button.getValue(), button.getEventType(), text);
+        }
+        if (element instanceof Paragraph) {
+            final Paragraph paragraph = (Paragraph) element;
+            final List<BaseElement> fields = new ArrayList<>(paragraph.getFields());
+            final List<BaseElement> result = internAll(fields);
+            return result == fields ? paragraph : new Paragraph(paragraph.getColumns(), result);
+        }
+        if (element instanceof HeaderModule) {
+            final HeaderModule header = (HeaderModule) element;
+            final PlainTextElement text = intern(header.getElement());
+            return text == header.getElement() ? header : new HeaderModule(text);
+        }
+        if (element instanceof SectionModule) {
+            final SectionModule section = (SectionModule) element;
+            final CardScopeElement text = intern(section.getText());
+            Accessory accessory = section.getAccessory();
+            if (accessory instanceof CardScopeElement) {
+                accessory = (Accessory) intern((CardScopeElement) accessory);
+            }
+            if (text == section.getText() && accessory == section.getAccessory()) {
+                return section;
+            }
+            return new SectionModule(text, accessory, section.getMode());
+        }
+        if (element instanceof ImageGroupModule) {
+            final List<ImageElement> images = ((ImageGroupModule) element).getImages();
+            final List<ImageElement> result = internAll(images);
+            return result == images ? element : new ImageGroupModule(result);
+        }
+        if (element instanceof ContainerModule) {
+            final List<ImageElement> images = ((ContainerModule) element).getImages();
+            final List<ImageElement> result = internAll(images);
+            return result == images ? element : new ContainerModule(result);
+        }
+        if (element instanceof ActionGroupModule) {
+            final List<InteractElement> buttons = ((ActionGroupModule) element).getButtons();
+            final List<InteractElement> result = internAll(buttons);
+            return result == buttons ? element : new ActionGroupModule(result);
+        }
+        if (element instanceof ContextModule) {
+            final List<BaseElement> elements = ((ContextModule) element).getModules();
+            final List<BaseElement> result = internAll(elements);
+            return result == elements ? element : new ContextModule(result);
+        }
+        return element; // no children
+    }
+
+    // Return the list of the interned objects, or the provided list if nothing has changed.
+    private <T extends CardScopeElement> List<T> internAll(List<T> elements) {
+        List<T> result = null;
+        for (int i = 0; i < elements.size(); i++) {
+            final T element = elements.get(i);
+            final T interned = intern(element);
+            if (interned != element && result == null) {
+                result = new ArrayList<>(elements);
+            }
+            if (result != null) {
+                result.set(i, interned);
+            }
+        }
+        return result == null ? elements : result;
+    }
+}
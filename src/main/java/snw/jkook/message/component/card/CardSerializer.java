@@ -0,0 +1,886 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component.card;
+
+import snw.jkook.entity.abilities.Accessory;
+import snw.jkook.message.component.FileComponent;
+import snw.jkook.message.component.card.element.BaseElement;
+import snw.jkook.message.component.card.element.ButtonElement;
+import snw.jkook.message.component.card.element.ImageElement;
+import snw.jkook.message.component.card.element.InteractElement;
+import snw.jkook.message.component.card.element.MarkdownElement;
+import snw.jkook.message.component.card.element.PlainTextElement;
+import snw.jkook.message.component.card.module.ActionGroupModule;
+import snw.jkook.message.component.card.module.BaseModule;
+import snw.jkook.message.component.card.module.ContainerModule;
+import snw.jkook.message.component.card.module.ContextModule;
+import snw.jkook.message.component.card.module.CountdownModule;
+import snw.jkook.message.component.card.module.DividerModule;
+import snw.jkook.message.component.card.module.FileModule;
+import snw.jkook.message.component.card.module.HeaderModule;
+import snw.jkook.message.component.card.module.ImageGroupModule;
+import snw.jkook.message.component.card.module.InviteModule;
+import snw.jkook.message.component.card.module.SectionModule;
+import snw.jkook.message.component.card.structure.Paragraph;
+import snw.jkook.util.Validate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The canonical JSON encoding of the card messages, which is used by KOOK message API. <p>
+ * The encoder writes the JSON text directly to an {@link Appendable} (e.g. a {@link java.io.Writer} or a {@link StringBuilder})
+ *  or a {@link ByteBuffer} (using UTF-8), no intermediate object is created. <p>
+ * The decoder reads the JSON text in one pass and creates the card objects directly.
+ * The unknown fields are ignored.
+ */
+public final class CardSerializer {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private CardSerializer() {
+    } // Cannot call constructor.
+
+    // -------- Encoding --------
+
+    /**
+     * Encode the provided multiple card component.
+     *
+     * @param card The card to encode
+     * @return The JSON text
+     */
+    public static String serialize(MultipleCardComponent card) {
+        final StringBuilder builder = new StringBuilder(256 * (card.getComponents().size() + 1));
+        try {
+            serialize(card, builder);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder never throws IOException
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Encode the provided multiple card component as a JSON array and write it to the provided output.
+     *
+     * @param card The card to encode
+     * @param out  The output
+     * @throws IOException Thrown if the output throws it
+     */
+    public static void serialize(MultipleCardComponent card, Appendable out) throws IOException {
+        serialize(card, out, null, null);
+    }
+
+    /**
+     * Encode the provided multiple card component as a JSON array and write it to the provided output. <p>
+     * The cached encodings of the modules interned by the provided interner are written directly,
+     *  so the shared modules are encoded only once.
+     *
+     * @param card     The card to encode
+     * @param out      The output
+     * @param interner The interner which holds the cached encodings
+     * @throws IOException Thrown if the output throws it
+     * @see CardInterner
+     */
+    public static void serialize(MultipleCardComponent card, Appendable out, CardInterner interner) throws IOException {
+        Validate.notNull(interner);
+        serialize(card, out, null, interner);
+    }
+
+    // The hook is called before each module is encoded, it is used by CardValidator.
+    static void serialize(MultipleCardComponent card, Appendable out, ModuleHook hook) throws IOException {
+        serialize(card, out, hook, null);
+    }
+
+    private static void serialize(MultipleCardComponent card, Appendable out, ModuleHook hook, CardInterner interner) throws IOException {
+        out.append('[');
+        final List<CardComponent> components = card.getComponents();
+        for (int i = 0; i < components.size(); i++) {
+            if (i != 0) {
+                out.append(',');
+            }
+            serialize(i, components.get(i), out, hook, interner);
+        }
+        out.append(']');
+    }
+
+    /**
+     * Encode the provided multiple card component as a JSON array and write it to the provided buffer using UTF-8.
+     *
+     * @param card The card to encode
+     * @param out  The buffer
+     * @throws java.nio.BufferOverflowException Thrown if there is not enough space in the buffer
+     */
+    public static void serialize(MultipleCardComponent card, ByteBuffer out) {
+        try {
+            serialize(card, new Utf8Output(out));
+        } catch (IOException e) {
+            throw new AssertionError(e); // Utf8Output never throws IOException
+        }
+    }
+
+    /**
+     * Encode the provided card component as a JSON object and write it to the provided output.
+     *
+     * @param card The card to encode
+     * @param out  The output
+     * @throws IOException Thrown if the output throws it
+     */
+    public static void serialize(CardComponent card, Appendable out) throws IOException {
+        serialize(0, card, out, null, null);
+    }
+
+    private static void serialize(int cardIndex, CardComponent card, Appendable out, ModuleHook hook, CardInterner interner) throws IOException {
+        out.append("{\"type\":\"card\"");
+        if (card.getTheme() != null) {
+            field(out, "theme", card.getTheme().getValue());
+        }
+        field(out, "size", card.getSize().getValue());
+        if (card.getColor() != null) {
+            field(out, "color", card.getColor());
+        }
+        out.append(",\"modules\":[");
+        final List<BaseModule> modules = card.getModules();
+        for (int i = 0; i < modules.size(); i++) {
+            if (i != 0) {
+                out.append(',');
+            }
+            final BaseModule module = modules.get(i);
+            if (hook != null) {
+                hook.beforeModule(cardIndex, i, module);
+            }
+            final String encoded = interner == null ? null : interner.encoded(module);
+            if (encoded != null) {
+                out.append(encoded);
+            } else {
+                serialize(module, out);
+            }
+        }
+        out.append("]}");
+    }
+
+    /**
+     * Encode the provided module as a JSON object and write it to the provided output.
+     *
+     * @param module The module to encode
+     * @param out    The output
+     * @throws IOException Thrown if the output throws it
+     * @throws IllegalArgumentException Thrown if the type of the module is unknown
+     */
+    public static void serialize(BaseModule module, Appendable out) throws IOException, IllegalArgumentException {
+        if (module instanceof HeaderModule) {
+            out.append("{\"type\":\"header\",\"text\":");
+            serialize(((HeaderModule) module).getElement(), out);
+        } else if (module instanceof SectionModule) {
+            final SectionModule section = (SectionModule) module;
+            out.append("{\"type\":\"section\",\"text\":");
+            serialize(section.getText(), out);
+            if (section.getAccessory() != null) {
+                if (section.getMode() != null) {
+                    field(out, "mode", section.getMode().getValue());
+                }
+                out.append(",\"accessory\":");
+                serialize((CardScopeElement) section.getAccessory(), out);
+            }
+        } else if (module instanceof ImageGroupModule) {
+            out.append("{\"type\":\"image-group\"");
+            elements(out, ((ImageGroupModule) module).getImages());
+        } else if (module instanceof ContainerModule) {
+            out.append("{\"type\":\"container\"");
+            elements(out, ((ContainerModule) module).getImages());
+        } else if (module instanceof ActionGroupModule) {
+            out.append("{\"type\":\"action-group\"");
+            elements(out, ((ActionGroupModule) module).getButtons());
+        } else if (module instanceof ContextModule) {
+            out.append("{\"type\":\"context\"");
+            elements(out, ((ContextModule) module).getModules());
+        } else if (module instanceof DividerModule) {
+            out.append("{\"type\":\"divider\"");
+        } else if (module instanceof FileModule) {
+            final FileModule file = (FileModule) module;
+            out.append("{\"type\":");
+            writeString(out, file.getType().getValue());
+            field(out, "src", file.getSource());
+            if (file.getTitle() != null) {
+                field(out, "title", file.getTitle());
+            }
+            if (file.getCover() != null) {
+                field(out, "cover", file.getCover());
+            }
+        } else if (module instanceof CountdownModule) {
+            final CountdownModule countdown = (CountdownModule) module;
+            out.append("{\"type\":\"countdown\"");
+            field(out, "mode", countdown.getType().getValue());
+            out.append(",\"endTime\":").append(Long.toString(countdown.getEndTime()));
+            if (countdown.getType() == CountdownModule.Type.SECOND) {
+                out.append(",\"startTime\":").append(Long.toString(countdown.getStartTime()));
+            }
+        } else if (module instanceof InviteModule) {
+            out.append("{\"type\":\"invite\"");
+            field(out, "code", ((InviteModule) module).getCode());
+        } else {
+            throw new IllegalArgumentException("Unknown module type: " + module.getClass().getName());
+        }
+        out.append('}');
+    }
+
+    /**
+     * Encode the provided element or structure as a JSON object and write it to the provided output.
+     *
+     * @param element The element or structure to encode
+     * @param out     The output
+     * @throws IOException Thrown if the output throws it
+     * @throws IllegalArgumentException Thrown if the type of the element is unknown
+     */
+    public static void serialize(CardScopeElement element, Appendable out) throws IOException, IllegalArgumentException {
+        if (element instanceof BaseModule) {
+            serialize((BaseModule) element, out);
+            return;
+        }
+        if (element instanceof PlainTextElement) {
+            final PlainTextElement text = (PlainTextElement) element;
+            out.append("{\"type\":\"plain-text\"");
+            field(out, "content", text.getContent());
+            out.append(",\"emoji\":").append(text.willConvertEmoji() ? "true" : "false");
+        } else if (element instanceof MarkdownElement) {
+            out.append("{\"type\":\"kmarkdown\"");
+            field(out, "content", ((MarkdownElement) element).getContent());
+        } else if (element instanceof ImageElement) {
+            final ImageElement image = (ImageElement) element;
+            out.append("{\"type\":\"image\"");
+            field(out, "src", image.getSource());
+            if (image.getAlt() != null) {
+                field(out, "alt", image.getAlt());
+            }
+            if (image.getSize() != null) {
+                field(out, "size", image.getSize().getValue());
+            }
+            out.append(",\"circle\":").append(image.isCircled() ? "true" : "false");
+        } else if (element instanceof ButtonElement) {
+            final ButtonElement button = (ButtonElement) element;
+            out.append("{\"type\":\"button\"");
+            if (button.getTheme() != null) {
+                field(out, "theme", button.getTheme().getValue());
+            }
+            if (button.getValue() != null) {
+                field(out, "value", button.getValue());
+            }
+            if (button.getEventType() != null && button.getEventType() != ButtonElement.EventType.NO_ACTION) {
+                field(out, "click", button.getEventType().getValue());
+            }
+            out.append(",\"text\":");
+            serialize(button.getText(), out);
+        } else if (element instanceof Paragraph) {
+            final Paragraph paragraph = (Paragraph) element;
+            out.append("{\"type\":\"paragraph\",\"cols\":").append(Integer.toString(paragraph.getColumns()));
+            out.append(",\"fields\":");
+            array(out, paragraph.getFields());
+        } else {
+            throw new IllegalArgumentException("Unknown element type: " + element.getClass().getName());
+        }
+        out.append('}');
+    }
+
+    /**
+     * Write the provided value as a JSON string literal (including the quotes) to the provided output.
+     *
+     * @param out   The output
+     * @param value The value
+     * @throws IOException Thrown if the output throws it
+     */
+    public static void writeString(Appendable out, CharSequence value) throws IOException {
+        out.append('"');
+        int start = 0; // the start of the chars which don't need to be escaped
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            if (start < i) {
+                out.append(value, start, i);
+            }
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+        if (start < length) {
+            out.append(value, start, length);
+        }
+        out.append('"');
+    }
+
+    private static void field(Appendable out, String name, String value) throws IOException {
+        out.append(",\"").append(name).append("\":");
+        if (value == null) {
+            out.append("null");
+        } else {
+            writeString(out, value);
+        }
+    }
+
+    private static void elements(Appendable out, Collection<? extends CardScopeElement> elements) throws IOException {
+        out.append(",\"elements\":");
+        array(out, elements);
+    }
+
+    private static void array(Appendable out, Collection<? extends CardScopeElement> elements) throws IOException {
+        out.append('[');
+        boolean first = true;
+        for (CardScopeElement element : elements) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            serialize(element, out);
+        }
+        out.append(']');
+    }
+
+    interface ModuleHook {
+        void beforeModule(int cardIndex, int moduleIndex, BaseModule module);
+    }
+
+    // Encodes the chars using UTF-8 and writes them to the buffer directly.
+    private static final class Utf8Output implements Appendable {
+        private final ByteBuffer buffer;
+        private char highSurrogate;
+
+        Utf8Output(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            if (highSurrogate != 0) {
+                final char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    final int codePoint = Character.toCodePoint(high, c);
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                    return this;
+                }
+                buffer.put((byte) '?'); // unpaired surrogate
+            }
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                buffer.put((byte) '?'); // unpaired surrogate
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+            return this;
+        }
+    }
+
+    // -------- Decoding --------
+
+    /**
+     * Decode the provided JSON text. <p>
+     * Both the array of cards and a single card object are accepted.
+     *
+     * @param json The JSON text
+     * @return The decoded card
+     * @throws IllegalArgumentException Thrown if the JSON text is invalid, or it does not represent a valid card
+     */
+    public static MultipleCardComponent deserialize(CharSequence json) throws IllegalArgumentException {
+        return new Parser(json).parseRoot();
+    }
+
+    /**
+     * Decode the JSON text provided by the reader. The reader will be read until its end, but won't be closed.
+     *
+     * @param reader The reader which provides the JSON text
+     * @return The decoded card
+     * @throws UncheckedIOException Thrown if the reader throws an {@link IOException}
+     * @throws IllegalArgumentException Thrown if the JSON text is invalid, or it does not represent a valid card
+     */
+    public static MultipleCardComponent deserialize(Reader reader) throws UncheckedIOException, IllegalArgumentException {
+        final StringBuilder builder = new StringBuilder(1024);
+        final char[] buffer = new char[4096];
+        try {
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, count);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return deserialize(builder);
+    }
+
+    private static final class Parser {
+        private final CharSequence json;
+        private int pos;
+
+        Parser(CharSequence json) {
+            this.json = json;
+        }
+
+        MultipleCardComponent parseRoot() {
+            skipWhitespace();
+            final List<CardComponent> cards;
+            if (peek() == '[') {
+                cards = new ArrayList<>(5);
+                for (Object value : parseArray()) {
+                    cards.add(cast(value, CardComponent.class));
+                }
+            } else {
+                cards = Collections.singletonList(cast(parseValue(), CardComponent.class));
+            }
+            skipWhitespace();
+            if (pos != json.length()) {
+                throw error("Unexpected content after the end of the card");
+            }
+            return new MultipleCardComponent(cards);
+        }
+
+        private Object parseValue() {
+            skipWhitespace();
+            final char c = peek();
+            switch (c) {
+                case '{':
+                    return parseObject();
+                case '[':
+                    return parseArray();
+                case '"':
+                    return parseString();
+                case 't':
+                    expect("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    expect("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    expect("null");
+                    return null;
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return parseNumber();
+                    }
+                    throw error("Unexpected character '" + c + "'");
+            }
+        }
+
+        private List<Object> parseArray() {
+            pos++; // [
+            final List<Object> result = new ArrayList<>();
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return result;
+            }
+            while (true) {
+                result.add(parseValue());
+                skipWhitespace();
+                final char c = next();
+                if (c == ']') {
+                    return result;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+        }
+
+        // Read all fields of the object, then create the card object based on its "type" field.
+        private Object parseObject() {
+            final int start = pos;
+            pos++; // {
+            final Fields fields = new Fields();
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    if (peek() != '"') {
+                        throw error("Expected a field name");
+                    }
+                    final String name = parseString();
+                    skipWhitespace();
+                    if (next() != ':') {
+                        throw error("Expected ':'");
+                    }
+                    final Object value = parseValue();
+                    try {
+                        fields.set(name, value);
+                    } catch (ClassCastException e) {
+                        throw error("Unexpected value type of the field '" + name + "'");
+                    }
+                    skipWhitespace();
+                    final char c = next();
+                    if (c == '}') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            try {
+                return fields.build();
+            } catch (IllegalArgumentException | IllegalStateException | ClassCastException e) {
+                throw new IllegalArgumentException("Invalid card object at position " + start + ": " + e.getMessage(), e);
+            }
+        }
+
+        private String parseString() {
+            pos++; // "
+            StringBuilder builder = null;
+            int start = pos;
+            while (true) {
+                if (pos >= json.length()) {
+                    throw error("Unterminated string");
+                }
+                final char c = json.charAt(pos);
+                if (c == '"') {
+                    final String result = builder == null
+                            ? json.subSequence(start, pos).toString()
+                            : builder.append(json, start, pos).toString();
+                    pos++;
+                    return result;
+                }
+                if (c != '\\') {
+                    pos++;
+                    continue;
+                }
+                if (builder == null) {
+                    builder = new StringBuilder();
+                }
+                builder.append(json, start, pos);
+                pos++; // \
+                final char escaped = next();
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        builder.append(escaped);
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > json.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            final int digit = Character.digit(json.charAt(pos++), 16);
+                            if (digit == -1) {
+                                throw error("Invalid unicode escape");
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        builder.append((char) code);
+                        break;
+                    default:
+                        throw error("Invalid escape character '" + escaped + "'");
+                }
+                start = pos;
+            }
+        }
+
+        private Number parseNumber() {
+            final int start = pos;
+            boolean integer = true;
+            while (pos < json.length()) {
+                final char c = json.charAt(pos);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    integer = false;
+                } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                    break;
+                }
+                pos++;
+            }
+            final String text = json.subSequence(start, pos).toString();
+            try {
+                return integer ? (Number) Long.parseLong(text) : (Number) Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw error("Invalid number '" + text + "'");
+            }
+        }
+
+        private void expect(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                if (pos >= json.length() || json.charAt(pos++) != literal.charAt(i)) {
+                    throw error("Expected '" + literal + "'");
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < json.length()) {
+                final char c = json.charAt(pos);
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= json.length()) {
+                throw error("Unexpected end of the JSON text");
+            }
+            return json.charAt(pos);
+        }
+
+        private char next() {
+            final char c = peek();
+            pos++;
+            return c;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos);
+        }
+    }
+
+    // The fields of a JSON object in the card, all fields of all types are here.
+    private static final class Fields {
+        private String type;
+        private String content;
+        private boolean emoji = true; // KOOK converts the emojis if it is absent
+        private String src;
+        private String alt;
+        private String size;
+        private boolean circle;
+        private String theme;
+        private String value;
+        private String click;
+        private Object text;
+        private int cols;
+        private List<Object> list; // "elements", "fields" or "modules"
+        private String mode;
+        private Object accessory;
+        private String title;
+        private String cover;
+        private long startTime = -1;
+        private long endTime;
+        private String code;
+        private String color;
+
+        void set(String name, Object json) {
+            switch (name) {
+                case "type":
+                    type = (String) json;
+                    break;
+                case "content":
+                    content = (String) json;
+                    break;
+                case "emoji":
+                    emoji = Boolean.TRUE.equals(json);
+                    break;
+                case "src":
+                    src = (String) json;
+                    break;
+                case "alt":
+                    alt = (String) json;
+                    break;
+                case "size":
+                    size = (String) json;
+                    break;
+                case "circle":
+                    circle = Boolean.TRUE.equals(json);
+                    break;
+                case "theme":
+                    theme = (String) json;
+                    break;
+                case "value":
+                    value = (String) json;
+                    break;
+                case "click":
+                    click = (String) json;
+                    break;
+                case "text":
+                    text = json;
+                    break;
+                case "cols":
+                    cols = ((Number) json).intValue();
+                    break;
+                case "elements":
+                case "fields":
+                case "modules":
+                    list = castList(json);
+                    break;
+                case "mode":
+                    mode = (String) json;
+                    break;
+                case "accessory":
+                    accessory = json;
+                    break;
+                case "title":
+                    title = (String) json;
+                    break;
+                case "cover":
+                    cover = (String) json;
+                    break;
+                case "startTime":
+                    startTime = ((Number) json).longValue();
+                    break;
+                case "endTime":
+                    endTime = ((Number) json).longValue();
+                    break;
+                case "code":
+                    code = (String) json;
+                    break;
+                case "color":
+                    color = (String) json;
+                    break;
+                default:
+                    // unknown field, ignore it
+            }
+        }
+
+        Object build() {
+            if (type == null) {
+                throw new IllegalArgumentException("The type field is missing");
+            }
+            switch (type) {
+                case "card":
+                    return new CardComponent(listOf(BaseModule.class), sizeOrDefault(), Theme.value(theme), color);
+                case "plain-text":
+                    return new PlainTextElement(content, emoji);
+                case "kmarkdown":
+                    return new MarkdownElement(content);
+                case "image":
+                    // the size is written only if it is set, so a missing size is decoded as null
+                    return new ImageElement(src, alt, size == null ? null : Size.value(size), circle);
+                case "button":
+                    final ButtonElement.EventType eventType = click == null ? ButtonElement.EventType.NO_ACTION : ButtonElement.EventType.value(click);
+                    return new ButtonElement(theme == null ? Theme.PRIMARY : Theme.value(theme), value, eventType, cast(text, BaseElement.class));
+                case "paragraph":
+                    return new Paragraph(cols, listOf(BaseElement.class));
+                case "header":
+                    return new HeaderModule(cast(text, PlainTextElement.class));
+                case "section":
+                    if (accessory == null) {
+                        return new SectionModule(cast(text, CardScopeElement.class));
+                    }
+                    final Accessory.Mode accessoryMode = Accessory.Mode.value(mode == null ? "right" : mode);
+                    return new SectionModule(cast(text, CardScopeElement.class), cast(accessory, Accessory.class), accessoryMode);
+                case "image-group":
+                    return new ImageGroupModule(listOf(ImageElement.class));
+                case "container":
+                    return new ContainerModule(listOf(ImageElement.class));
+                case "action-group":
+                    return new ActionGroupModule(listOf(InteractElement.class));
+                case "context":
+                    return new ContextModule(listOf(BaseElement.class));
+                case "divider":
+                    return DividerModule.INSTANCE;
+                case "file":
+                case "audio":
+                case "video":
+                    return new FileModule(FileComponent.Type.value(type), src, title, cover);
+                case "countdown":
+                    return new CountdownModule(CountdownModule.Type.value(mode), startTime, endTime);
+                case "invite":
+                    return new InviteModule(code);
+                default:
+                    throw new IllegalArgumentException("Unknown type: " + type);
+            }
+        }
+
+        private Size sizeOrDefault() {
+            return size == null ? Size.LG : Size.value(size);
+        }
+
+        private <T> List<T> listOf(Class<T> type) {
+            if (list == null) {
+                return new ArrayList<>(0);
+            }
+            final List<T> result = new ArrayList<>(list.size());
+            for (Object value : list) {
+                result.add(cast(value, type));
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Object> castList(Object json) {
+            if (!(json instanceof List)) {
+                throw new ClassCastException("Expected an array");
+            }
+            return (List<Object>) json;
+        }
+    }
+
+    private static <T> T cast(Object value, Class<T> type) {
+        if (!type.isInstance(value)) {
+            throw new IllegalArgumentException("Expected " + type.getSimpleName() + ", got " + (value == null ? "null" : value.getClass().getSimpleName()));
+        }
+        return type.cast(value);
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component.card;
+
+import snw.jkook.message.component.PreparedComponent;
+import snw.jkook.message.component.TemplateMessage;
+import snw.jkook.util.KMarkdownHelper;
+import snw.jkook.util.Validate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents a card which contains placeholders, it is compiled only once and can be rendered many times. <p>
+ * A placeholder is written as <code>{{name}}</code> in any text of the card,
+ *  such as the content of {@link snw.jkook.message.component.card.element.MarkdownElement},
+ *  the value of {@link snw.jkook.message.component.card.element.ButtonElement}, or the source of an image.
+ * The name can contain letters, digits, <code>_</code>, <code>-</code> and <code>.</code>. <p>
+ * The card is encoded using {@link CardSerializer} when compiling, and split into fragments at the placeholders.
+ * Rendering just joins the fragments and the escaped values, the module tree is not created again.
+ * The values in KMarkdown contents are escaped using {@link KMarkdownHelper#escape(String)},
+ *  all values are escaped as JSON strings. <p>
+ * <b>The values are not validated.</b> (e.g. The length of the contents)
+ * If you want to render the cards on KOOK server, see {@link TemplateMessage}. <p>
+ * Example:
+ * <blockquote><pre>
+ * {@code
+ *     CardTemplate profile = CardTemplate.compile(new CardBuilder()
+ *         .setTheme(Theme.PRIMARY)
+ *         .setSize(Size.LG)
+ *         .addModule(new HeaderModule("Profile of {{name}}"))
+ *         .addModule(new SectionModule("**Level** {{level}}"))
+ *         .build());
+ *     Map<String, Object> values = new HashMap<>();
+ *     values.put("name", user.getName());
+ *     values.put("level", 42);
+ *     channel.sendComponent(profile.prepare(values));
+ * }
+ * </pre></blockquote>
+ */
+public final class CardTemplate {
+    private static final String KMARKDOWN_CONTENT_PREFIX = "{\"type\":\"kmarkdown\",\"content\":";
+
+    private final String[] fragments; // fragments.length == names.length + 1
+    private final String[] quotedFragments; // the fragments escaped as the content of a JSON string
+    private final String[] names;
+    private final boolean[] markdown;
+    private final Set<String> placeholders;
+    private final int fragmentsLength;
+
+    private CardTemplate(List<String> fragments, List<String> names, List<Boolean> markdown) {
+        this.fragments = fragments.toArray(new String[0]);
+        this.names = names.toArray(new String[0]);
+        this.markdown = new boolean[this.names.length];
+        for (int i = 0; i < this.markdown.length; i++) {
+            this.markdown[i] = markdown.get(i);
+        }
+        this.quotedFragments = new String[this.fragments.length];
+        int length = 0;
+        for (int i = 0; i < this.fragments.length; i++) {
+            this.quotedFragments[i] = escapeJson(this.fragments[i]);
+            length += this.fragments[i].length();
+        }
+        this.fragmentsLength = length;
+        this.placeholders = Collections.unmodifiableSet(new LinkedHashSet<>(names));
+    }
+
+    /**
+     * Compile the provided card.
+     *
+     * @param card The card which contains placeholders
+     * @return The template
+     */
+    public static CardTemplate compile(MultipleCardComponent card) {
+        Validate.notNull(card);
+        final String json = CardSerializer.serialize(card);
+        final List<String> fragments = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<Boolean> markdown = new ArrayList<>();
+        int fragmentStart = 0;
+        int stringStart = -1; // the start of the JSON string which contains the current position, -1 if not in a string
+        for (int i = 0; i < json.length(); i++) {
+            final char c = json.charAt(i);
+            if (stringStart == -1) {
+                if (c == '"') {
+                    stringStart = i;
+                }
+                continue;
+            }
+            if (c == '\\') {
+                i++; // skip the escaped character
+            } else if (c == '"') {
+                stringStart = -1;
+            } else if (c == '{' && json.startsWith("{{", i)) {
+                final int end = placeholderEnd(json, i + 2);
+                if (end != -1) {
+                    fragments.add(json.substring(fragmentStart, i));
+                    names.add(json.substring(i + 2, end));
+                    markdown.add(json.startsWith(KMARKDOWN_CONTENT_PREFIX, stringStart - KMARKDOWN_CONTENT_PREFIX.length()));
+                    fragmentStart = end + 2;
+                    i = end + 1;
+                }
+            }
+        }
+        fragments.add(json.substring(fragmentStart));
+        return new CardTemplate(fragments, names, markdown);
+    }
+
+    /**
+     * Compile the provided card.
+     *
+     * @param card The card which contains placeholders
+     * @return The template
+     */
+    public static CardTemplate compile(CardComponent card) {
+        Validate.notNull(card);
+        return compile(new MultipleCardComponent(Collections.singletonList(card)));
+    }
+
+    /**
+     * Get the names of the placeholders in this template.
+     */
+    public Set<String> getPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * Render this template to the JSON text of the card.
+     *
+     * @param values The values of the placeholders, {@link String#valueOf(Object)} is used to convert them to strings
+     * @return The JSON text
+     * @throws IllegalArgumentException Thrown if the value of a placeholder is missing
+     */
+    public String render(Map<String, ?> values) throws IllegalArgumentException {
+        final StringBuilder builder = new StringBuilder(fragmentsLength + 32 * names.length);
+        try {
+            render(values, builder);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder never throws IOException
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Render this template to the JSON text of the card, and write it to the provided output.
+     *
+     * @param values The values of the placeholders, {@link String#valueOf(Object)} is used to convert them to strings
+     * @param out    The output
+     * @throws IOException Thrown if the output throws it
+     * @throws IllegalArgumentException Thrown if the value of a placeholder is missing
+     */
+    public void render(Map<String, ?> values, Appendable out) throws IOException, IllegalArgumentException {
+        final String[] escaped = escapeValues(values);
+        for (int i = 0; i < names.length; i++) {
+            out.append(fragments[i]).append(escaped[i]);
+        }
+        out.append(fragments[names.length]);
+    }
+
+    /**
+     * Render this template to a component which is ready to send.
+     *
+     * @param values The values of the placeholders, {@link String#valueOf(Object)} is used to convert them to strings
+     * @return The component
+     * @throws IllegalArgumentException Thrown if the value of a placeholder is missing
+     */
+    public PreparedComponent prepare(Map<String, ?> values) throws IllegalArgumentException {
+        final String[] escaped = escapeValues(values);
+        final StringBuilder builder = new StringBuilder(fragmentsLength + 48 * names.length + 2).append('"');
+        for (int i = 0; i < names.length; i++) {
+            builder.append(quotedFragments[i]).append(escapeJson(escaped[i]));
+        }
+        builder.append(quotedFragments[names.length]).append('"');
+        return new PreparedComponent(PreparedComponent.TYPE_CARD, builder.toString().getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    private String[] escapeValues(Map<String, ?> values) {
+        Validate.notNull(values);
+        final String[] result = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            final Object value = values.get(names[i]);
+            if (value == null && !values.containsKey(names[i])) {
+                throw new IllegalArgumentException("The value of the placeholder '" + names[i] + "' is missing.");
+            }
+            final String text = String.valueOf(value);
+            result[i] = escapeJson(markdown[i] ? KMarkdownHelper.escape(text) : text);
+        }
+        return result;
+    }
+
+    // Return the index of the "}}" which ends the placeholder name starting at the provided index, -1 if it is not a placeholder.
+    private static int placeholderEnd(String json, int nameStart) {
+        int i = nameStart;
+        while (i < json.length()) {
+            final char c = json.charAt(i);
+            if (c == '}') {
+                return i > nameStart && json.startsWith("}}", i) ? i : -1;
+            }
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.')) {
+                return -1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    // Escape the provided text as the content of a JSON string. (without quotes)
+    private static String escapeJson(String text) {
+        final StringBuilder builder = new StringBuilder(text.length() + 16);
+        try {
+            CardSerializer.writeString(builder, text);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder never throws IOException
+        }
+        return builder.substring(1, builder.length() - 1);
+    }
+}
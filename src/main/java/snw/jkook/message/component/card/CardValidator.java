@@ -0,0 +1,274 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.message.component.card;
+
+import snw.jkook.message.component.card.element.BaseElement;
+import snw.jkook.message.component.card.element.ButtonElement;
+import snw.jkook.message.component.card.element.ImageElement;
+import snw.jkook.message.component.card.element.MarkdownElement;
+import snw.jkook.message.component.card.element.PlainTextElement;
+import snw.jkook.message.component.card.module.ActionGroupModule;
+import snw.jkook.message.component.card.module.BaseModule;
+import snw.jkook.message.component.card.module.ContainerModule;
+import snw.jkook.message.component.card.module.ContextModule;
+import snw.jkook.message.component.card.module.FileModule;
+import snw.jkook.message.component.card.module.HeaderModule;
+import snw.jkook.message.component.card.module.ImageGroupModule;
+import snw.jkook.message.component.card.module.SectionModule;
+import snw.jkook.message.component.card.structure.Paragraph;
+import snw.jkook.util.Validate;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Checks the card messages against the limits of KOOK before sending them,
+ *  so the invalid cards can be rejected without a network round-trip. <p>
+ * The card is encoded using {@link CardSerializer} (to nowhere) once,
+ *  each module is checked right before it is encoded, and the UTF-8 size of the encoded card is counted at the same time.
+ * The validation stops as soon as a limit is exceeded. <p>
+ * The following limits are checked:
+ * <ul>
+ *     <li>At most 5 cards in a message, at most 50 modules in a card</li>
+ *     <li>Plain text: at most 2000 characters, KMarkdown: at most 5000 characters, header: at most 100 characters</li>
+ *     <li>Paragraph: 1 - 3 columns, at most 50 fields</li>
+ *     <li>Image group and container: 1 - 9 images, action group: 1 - 4 buttons, context: at most 10 elements</li>
+ *     <li>The source URL of images and files must be present</li>
+ *     <li>The encoded size in bytes, if a maximum is set</li>
+ * </ul>
+ */
+public final class CardValidator {
+    /**
+     * The validator without the limit of the encoded size.
+     */
+    public static final CardValidator DEFAULT = new CardValidator(Integer.MAX_VALUE);
+
+    public static final int MAX_CARDS = 5;
+    public static final int MAX_MODULES = 50;
+    public static final int MAX_PLAIN_TEXT_LENGTH = 2000;
+    public static final int MAX_KMARKDOWN_LENGTH = 5000;
+    public static final int MAX_HEADER_LENGTH = 100;
+    public static final int MAX_PARAGRAPH_COLUMNS = 3;
+    public static final int MAX_PARAGRAPH_FIELDS = 50;
+    public static final int MAX_IMAGES = 9;
+    public static final int MAX_BUTTONS = 4;
+    public static final int MAX_CONTEXT_ELEMENTS = 10;
+
+    private final int maxEncodedSize;
+
+    /**
+     * @param maxEncodedSize The maximum size of the encoded card in bytes (UTF-8)
+     */
+    public CardValidator(int maxEncodedSize) {
+        Validate.isTrue(maxEncodedSize > 0, "The maximum encoded size must be positive.");
+        this.maxEncodedSize = maxEncodedSize;
+    }
+
+    /**
+     * Get the maximum size of the encoded card in bytes.
+     */
+    public int getMaxEncodedSize() {
+        return maxEncodedSize;
+    }
+
+    /**
+     * Validate the provided card.
+     *
+     * @param card The card to validate
+     * @return The exact size of the card encoded by {@link CardSerializer} in bytes (UTF-8)
+     * @throws IllegalArgumentException Thrown if the card exceeds any limit, the message describes the first problem found
+     */
+    public int validate(MultipleCardComponent card) throws IllegalArgumentException {
+        Validate.notNull(card);
+        final List<CardComponent> cards = card.getComponents();
+        check(cards.size() <= MAX_CARDS, -1, -1, "Too many cards, expected <= " + MAX_CARDS + ", got " + cards.size());
+        for (int i = 0; i < cards.size(); i++) {
+            final int moduleCount = cards.get(i).moduleCount();
+            check(moduleCount <= MAX_MODULES, i, -1, "Too many modules, expected <= " + MAX_MODULES + ", got " + moduleCount);
+        }
+        final SizeCounter counter = new SizeCounter(maxEncodedSize);
+        try {
+            CardSerializer.serialize(card, counter, CardValidator::checkModule);
+        } catch (SizeCounter.LimitExceeded e) {
+            throw new IllegalArgumentException("The encoded card is too large, expected <= " + maxEncodedSize + " bytes");
+        } catch (IOException e) {
+            throw new AssertionError(e); // SizeCounter never throws IOException
+        }
+        return counter.size;
+    }
+
+    /**
+     * Return true if the provided card doesn't exceed any limit.
+     *
+     * @param card The card to validate
+     * @see #validate(MultipleCardComponent)
+     */
+    public boolean isValid(MultipleCardComponent card) {
+        try {
+            validate(card);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Get the exact size of the card encoded by {@link CardSerializer} in bytes (UTF-8), without encoding it into memory. <br>
+     * Unpaired surrogate characters are not supported.
+     * No limit is checked.
+     *
+     * @param card The card
+     */
+    public static int encodedSize(MultipleCardComponent card) {
+        final SizeCounter counter = new SizeCounter(Integer.MAX_VALUE);
+        try {
+            CardSerializer.serialize(card, counter);
+        } catch (IOException e) {
+            throw new AssertionError(e); // SizeCounter never throws IOException
+        }
+        return counter.size;
+    }
+
+    private static void checkModule(int cardIndex, int moduleIndex, BaseModule module) {
+        if (module instanceof HeaderModule) {
+            final int length = ((HeaderModule) module).getElement().getContent().length();
+            check(length <= MAX_HEADER_LENGTH, cardIndex, moduleIndex, "Too long header, expected <= " + MAX_HEADER_LENGTH + " characters, got " + length);
+        } else if (module instanceof SectionModule) {
+            final SectionModule section = (SectionModule) module;
+            checkText(section.getText(), cardIndex, moduleIndex);
+            if (section.getAccessory() instanceof CardScopeElement) {
+                checkElement((CardScopeElement) section.getAccessory(), cardIndex, moduleIndex);
+            }
+        } else if (module instanceof ImageGroupModule) {
+            checkElements(((ImageGroupModule) module).getImages(), 1, MAX_IMAGES, cardIndex, moduleIndex);
+        } else if (module instanceof ContainerModule) {
+            checkElements(((ContainerModule) module).getImages(), 1, MAX_IMAGES, cardIndex, moduleIndex);
+        } else if (module instanceof ActionGroupModule) {
+            checkElements(((ActionGroupModule) module).getButtons(), 1, MAX_BUTTONS, cardIndex, moduleIndex);
+        } else if (module instanceof ContextModule) {
+            checkElements(((ContextModule) module).getModules(), 1, MAX_CONTEXT_ELEMENTS, cardIndex, moduleIndex);
+        } else if (module instanceof FileModule) {
+            check(((FileModule) module).getSource() != null, cardIndex, moduleIndex, "The source URL of the file is missing");
+        }
+    }
+
+    private static void checkElements(Collection<? extends BaseElement> elements, int min, int max, int cardIndex, int moduleIndex) {
+        final int size = elements.size();
+        check(size >= min && size <= max, cardIndex, moduleIndex, "Unexpected element count, expected " + min + " - " + max + ", got " + size);
+        for (BaseElement element : elements) {
+            checkElement(element, cardIndex, moduleIndex);
+        }
+    }
+
+    private static void checkText(CardScopeElement text, int cardIndex, int moduleIndex) {
+        if (text instanceof Paragraph) {
+            final Paragraph paragraph = (Paragraph) text;
+            check(paragraph.getColumns() >= 1 && paragraph.getColumns() <= MAX_PARAGRAPH_COLUMNS, cardIndex, moduleIndex,
+                    "Unexpected paragraph columns, expected 1 - " + MAX_PARAGRAPH_COLUMNS + ", got " + paragraph.getColumns());
+            check(paragraph.getFields().size() <= MAX_PARAGRAPH_FIELDS, cardIndex, moduleIndex,
+                    "Too many paragraph fields, expected <= " + MAX_PARAGRAPH_FIELDS + ", got " + paragraph.getFields().size());
+            for (BaseElement field : paragraph.getFields()) {
+                checkElement(field, cardIndex, moduleIndex);
+            }
+        } else {
+            checkElement(text, cardIndex, moduleIndex);
+        }
+    }
+
+    private static void checkElement(CardScopeElement element, int cardIndex, int moduleIndex) {
+        if (element instanceof PlainTextElement) {
+            final int length = ((PlainTextElement) element).getContent().length();
+            check(length <= MAX_PLAIN_TEXT_LENGTH, cardIndex, moduleIndex, "Too long plain text, expected <= " + MAX_PLAIN_TEXT_LENGTH + " characters, got " + length);
+        } else if (element instanceof MarkdownElement) {
+            final int length = ((MarkdownElement) element).getContent().length();
+            check(length <= MAX_KMARKDOWN_LENGTH, cardIndex, moduleIndex, "Too long KMarkdown, expected <= " + MAX_KMARKDOWN_LENGTH + " characters, got " + length);
+        } else if (element instanceof ImageElement) {
+            check(((ImageElement) element).getSource() != null, cardIndex, moduleIndex, "The source URL of the image is missing");
+        } else if (element instanceof ButtonElement) {
+            checkElement(((ButtonElement) element).getText(), cardIndex, moduleIndex);
+        }
+    }
+
+    private static void check(boolean expression, int cardIndex, int moduleIndex, String message) {
+        if (!expression) {
+            final StringBuilder builder = new StringBuilder(message.length() + 32);
+            if (cardIndex != -1) {
+                builder.append("Card ").append(cardIndex);
+                if (moduleIndex != -1) {
+                    builder.append(", module ").append(moduleIndex);
+                }
+                builder.append(": ");
+            }
+            throw new IllegalArgumentException(builder.append(message).toString());
+        }
+    }
+
+    // Counts the UTF-8 size of the chars, and stops as soon as the limit is exceeded.
+    private static final class SizeCounter implements Appendable {
+        private final int limit;
+        private int size;
+
+        SizeCounter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                count(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            count(c);
+            return this;
+        }
+
+        private void count(char c) {
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                size += 4; // the low surrogate will be counted as 0
+            } else if (!Character.isLowSurrogate(c)) {
+                size += 3;
+            }
+            if (size > limit) {
+                throw LimitExceeded.INSTANCE;
+            }
+        }
+
+        // Thrown to stop the encoding, no stack trace is needed.
+        private static final class LimitExceeded extends RuntimeException {
+            private static final long serialVersionUID = 1L;
+            static final LimitExceeded INSTANCE = new LimitExceeded();
+
+            private LimitExceeded() {
+                super(null, null, false, false);
+            }
+        }
+    }
+}
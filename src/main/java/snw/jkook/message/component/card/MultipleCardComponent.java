@@ -18,19 +18,26 @@ package snw.jkook.message.component.card;
 
 import snw.jkook.message.component.BaseComponent;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents the component with multiple cards.
  */
 public class MultipleCardComponent extends BaseComponent {
     private final List<CardComponent> components;
+    private int hash;
 
     public MultipleCardComponent(List<CardComponent> components) {
-        if (components.size() > 5) { // Kook Official limit!
-            throw new IllegalStateException("Unexpected card count. Expected <= 5, got " + components.size());
+        this(components.toArray(new CardComponent[0]));
+    }
+
+    // The provided array is owned by this object after calling this, it won't be copied.
+    MultipleCardComponent(CardComponent[] components) {
+        if (components.length > 5) { // Kook Official limit!
+            throw new IllegalStateException("Unexpected card count. Expected <= 5, got " + components.length);
         }
         for (CardComponent component : components) {
             final int moduleCount = component.moduleCount();
@@ -39,7 +46,7 @@ public class MultipleCardComponent extends BaseComponent {
                         "The card module count is out of allowed range! Expected <= 50, got " + moduleCount);
             }
         }
-        this.components = Collections.unmodifiableList(new LinkedList<>(components));
+        this.components = Collections.unmodifiableList(Arrays.asList(components));
     }
 
     /**
@@ -49,6 +56,24 @@ public class MultipleCardComponent extends BaseComponent {
         return components;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MultipleCardComponent that = (MultipleCardComponent) o;
+        return Objects.equals(components, that.components);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = components.hashCode();
+            hash = result;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "MultipleCardComponent{" +
@@ -23,6 +23,7 @@ import snw.jkook.util.Validate;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Represents a button. It can cause a {@link UserClickButtonEvent}.
@@ -127,6 +128,19 @@ public class ButtonElement extends InteractElement implements Accessory {
         }
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ButtonElement that = (ButtonElement) o;
+        return Objects.equals(theme, that.theme) && Objects.equals(value, that.value) && Objects.equals(type, that.type) && Objects.equals(element, that.element);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(theme, value, type, element);
+    }
+
     @Override
     public String toString() {
         return "ButtonElement{" +
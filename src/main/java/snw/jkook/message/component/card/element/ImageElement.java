@@ -19,6 +19,8 @@ package snw.jkook.message.component.card.element;
 import snw.jkook.entity.abilities.Accessory;
 import snw.jkook.message.component.card.Size;
 
+import java.util.Objects;
+
 /**
  * Represents the image element.
  */
@@ -67,6 +69,19 @@ public class ImageElement extends BaseElement implements Accessory {
         return circle;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ImageElement that = (ImageElement) o;
+        return circle == that.circle && Objects.equals(src, that.src) && Objects.equals(alt, that.alt) && Objects.equals(size, that.size);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(src, alt, size, circle);
+    }
+
     @Override
     public String toString() {
         return "ImageElement{" +
@@ -18,6 +18,8 @@ package snw.jkook.message.component.card.element;
 
 import snw.jkook.util.Validate;
 
+import java.util.Objects;
+
 /**
  * Represents the KMarkdown element.
  */
@@ -36,6 +38,19 @@ public class MarkdownElement extends BaseElement {
         return content;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MarkdownElement that = (MarkdownElement) o;
+        return Objects.equals(content, that.content);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(content);
+    }
+
     @Override
     public String toString() {
         return "MarkdownElement{" +
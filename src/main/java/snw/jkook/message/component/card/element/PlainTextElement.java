@@ -18,6 +18,8 @@ package snw.jkook.message.component.card.element;
 
 import snw.jkook.util.Validate;
 
+import java.util.Objects;
+
 /**
  * Represents the plain text element.
  */
@@ -49,6 +51,19 @@ public class PlainTextElement extends BaseElement {
         return emoji;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PlainTextElement that = (PlainTextElement) o;
+        return emoji == that.emoji && Objects.equals(content, that.content);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(content, emoji);
+    }
+
     @Override
     public String toString() {
         return "PlainTextElement{" +
@@ -19,20 +19,23 @@ package snw.jkook.message.component.card.module;
 import snw.jkook.message.component.card.element.InteractElement;
 import snw.jkook.util.Validate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents a group of {@link InteractElement}.
  */
 public class ActionGroupModule extends BaseModule {
     private final List<InteractElement> buttons;
+    private int hash;
 
     public ActionGroupModule(List<InteractElement> buttons) {
         Validate.isTrue(buttons.size() >= 1, "Unexpected image module count, expected >= 1, got " + buttons.size());
         Validate.isTrue(buttons.size() <= 4, "Unexpected image module count, expected <= 4, got " + buttons.size());
-        this.buttons = Collections.unmodifiableList(new LinkedList<>(buttons));
+        this.buttons = Collections.unmodifiableList(Arrays.asList(buttons.toArray(new InteractElement[0])));
     }
 
     /**
@@ -46,7 +49,7 @@ public class ActionGroupModule extends BaseModule {
      * A simple builder for building {@link ActionGroupModule}.
      */
     public static class Builder {
-        private final List<InteractElement> modules = new LinkedList<>();
+        private final List<InteractElement> modules = new ArrayList<>();
 
         public Builder add(InteractElement module) {
             modules.add(module);
@@ -58,6 +61,24 @@ public class ActionGroupModule extends BaseModule {
         }
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ActionGroupModule that = (ActionGroupModule) o;
+        return Objects.equals(buttons, that.buttons);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = buttons.hashCode();
+            hash = result;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "ActionGroupModule{" +
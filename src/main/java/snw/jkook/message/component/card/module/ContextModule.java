@@ -22,16 +22,19 @@ import snw.jkook.message.component.card.element.MarkdownElement;
 import snw.jkook.message.component.card.element.PlainTextElement;
 import snw.jkook.util.Validate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 
 public class ContextModule extends BaseModule {
     private final List<BaseElement> modules;
+    private int hash;
 
     public ContextModule(List<BaseElement> modules) {
         Validate.isTrue(modules.stream().allMatch(IT -> ((IT instanceof PlainTextElement) || (IT instanceof MarkdownElement) || (IT instanceof ImageElement))), "Context module only accepts plain-text, kmarkdown or image modules.");
-        this.modules = Collections.unmodifiableList(modules);
+        this.modules = Collections.unmodifiableList(Arrays.asList(modules.toArray(new BaseElement[0])));
     }
 
     /**
@@ -45,7 +48,7 @@ public class ContextModule extends BaseModule {
      * A simple builder for building {@link ContextModule}.
      */
     public static class Builder {
-        private final List<BaseElement> modules = new LinkedList<>();
+        private final List<BaseElement> modules = new ArrayList<>();
 
         public Builder add(PlainTextElement module) {
             modules.add(module);
@@ -67,6 +70,24 @@ public class ContextModule extends BaseModule {
         }
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ContextModule that = (ContextModule) o;
+        return Objects.equals(modules, that.modules);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = modules.hashCode();
+            hash = result;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "ContextModule{" +
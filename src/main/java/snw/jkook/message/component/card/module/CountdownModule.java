@@ -18,6 +18,7 @@ package snw.jkook.message.component.card.module;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import snw.jkook.util.Validate;
 
@@ -100,6 +101,19 @@ public class CountdownModule extends BaseModule {
         }
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CountdownModule that = (CountdownModule) o;
+        return startTime == that.startTime && endTime == that.endTime && Objects.equals(type, that.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, startTime, endTime);
+    }
+
     @Override
     public String toString() {
         return "CountdownModule{" +
@@ -29,4 +29,15 @@ public class DividerModule extends BaseModule {
        so I think it is not necessary to make the constructor public.
     */
     protected DividerModule() {}
+
+    // All divider modules are equal, the subclasses are compared by their class.
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o != null && getClass() == o.getClass());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
 }
@@ -20,6 +20,8 @@ import org.jetbrains.annotations.Nullable;
 import snw.jkook.message.component.FileComponent;
 import snw.jkook.util.Validate;
 
+import java.util.Objects;
+
 /**
  * Represents the module that contains a file. Only normal files are supported.
  */
@@ -67,6 +69,19 @@ public class FileModule extends BaseModule {
         return cover;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FileModule that = (FileModule) o;
+        return Objects.equals(type, that.type) && Objects.equals(src, that.src) && Objects.equals(title, that.title) && Objects.equals(cover, that.cover);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, src, title, cover);
+    }
+
     @Override
     public String toString() {
         return "FileModule{" +
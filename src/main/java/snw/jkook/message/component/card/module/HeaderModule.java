@@ -19,6 +19,8 @@ package snw.jkook.message.component.card.module;
 import snw.jkook.message.component.card.element.PlainTextElement;
 import snw.jkook.util.Validate;
 
+import java.util.Objects;
+
 /**
  * Represents the header module. Accepts plain text only.
  */
@@ -41,6 +43,19 @@ public class HeaderModule extends BaseModule {
         return element;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HeaderModule that = (HeaderModule) o;
+        return Objects.equals(element, that.element);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(element);
+    }
+
     @Override
     public String toString() {
         return "HeaderModule{" +
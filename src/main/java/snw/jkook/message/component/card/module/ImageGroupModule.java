@@ -19,20 +19,23 @@ package snw.jkook.message.component.card.module;
 import snw.jkook.message.component.card.element.ImageElement;
 import snw.jkook.util.Validate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents a group of image components.
  */
 public class ImageGroupModule extends BaseModule {
     private final List<ImageElement> images;
+    private int hash;
 
     public ImageGroupModule(List<ImageElement> images) {
         Validate.isTrue(images.size() >= 1, "Unexpected image module count, expected >= 1, got " + images.size());
         Validate.isTrue(images.size() <= 9, "Unexpected image module count, expected <= 9, got " + images.size());
-        this.images = Collections.unmodifiableList(new LinkedList<>(images));
+        this.images = Collections.unmodifiableList(Arrays.asList(images.toArray(new ImageElement[0])));
     }
 
     /**
@@ -46,7 +49,7 @@ public class ImageGroupModule extends BaseModule {
      * A simple builder for building {@link ImageGroupModule}.
      */
     public static class Builder {
-        private final List<ImageElement> modules = new LinkedList<>();
+        private final List<ImageElement> modules = new ArrayList<>();
 
         public Builder add(ImageElement module) {
             modules.add(module);
@@ -58,6 +61,24 @@ public class ImageGroupModule extends BaseModule {
         }
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ImageGroupModule that = (ImageGroupModule) o;
+        return Objects.equals(images, that.images);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = images.hashCode();
+            hash = result;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "ImageGroupModule{" +
@@ -16,6 +16,8 @@
 
 package snw.jkook.message.component.card.module;
 
+import java.util.Objects;
+
 /**
  * Represents a module that contains an invitation link (or code).
  */
@@ -33,6 +35,19 @@ public class InviteModule extends BaseModule {
         return code;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        InviteModule that = (InviteModule) o;
+        return Objects.equals(code, that.code);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(code);
+    }
+
     @Override
     public String toString() {
         return "InviteModule{" +
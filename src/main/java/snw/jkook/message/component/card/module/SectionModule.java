@@ -24,6 +24,8 @@ import snw.jkook.message.component.card.element.PlainTextElement;
 import snw.jkook.message.component.card.structure.Paragraph;
 import snw.jkook.util.Validate;
 
+import java.util.Objects;
+
 /**
  * Represents a section module.
  */
@@ -31,6 +33,7 @@ public class SectionModule extends BaseModule implements AccessoryHolder {
     private final CardScopeElement text;
     private final Accessory accessory;
     private final Accessory.Mode mode;
+    private int hash;
 
     /**
      * @param text <b>KMarkdown</b> text.
@@ -82,6 +85,24 @@ public class SectionModule extends BaseModule implements AccessoryHolder {
         return mode;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SectionModule that = (SectionModule) o;
+        return Objects.equals(text, that.text) && Objects.equals(accessory, that.accessory) && Objects.equals(mode, that.mode);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = Objects.hash(text, accessory, mode);
+            hash = result;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "SectionModule{" +
@@ -15,7 +15,11 @@
  */
 
 /**
- * This package provides basic CardMessage.
+ * This package provides basic CardMessage. <p>
+ * The card components, modules, structures and elements are immutable:
+ *  the lists they hold are unmodifiable copies of the provided lists.
+ * So the composite objects compute their hash codes only once and cache them,
+ *  the same card can be used as a key of a map (e.g. in {@link snw.jkook.message.component.card.CardInterner}) cheaply.
  */
 
 package snw.jkook.message.component.card;
\ No newline at end of file
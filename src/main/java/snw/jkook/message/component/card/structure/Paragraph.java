@@ -22,9 +22,11 @@ import snw.jkook.message.component.card.element.PlainTextElement;
 import snw.jkook.util.Validate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents a "paragraph" module.
@@ -32,6 +34,7 @@ import java.util.List;
 public class Paragraph extends BaseStructure {
     private final int columns;
     private final Collection<BaseElement> fields;
+    private int hash;
 
     public Paragraph(int columns, Collection<BaseElement> fields) {
         Validate.isTrue(
@@ -39,7 +42,7 @@ public class Paragraph extends BaseStructure {
                 "Paragraph only accepts plain-text and kmarkdown."
         );
         this.columns = columns;
-        this.fields = Collections.unmodifiableCollection(fields);
+        this.fields = Collections.unmodifiableList(Arrays.asList(fields.toArray(new BaseElement[0])));
     }
 
     /**
@@ -82,6 +85,24 @@ public class Paragraph extends BaseStructure {
         }
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Paragraph that = (Paragraph) o;
+        return columns == that.columns && Objects.equals(fields, that.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = Objects.hash(columns, fields);
+            hash = result;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "Paragraph{" +
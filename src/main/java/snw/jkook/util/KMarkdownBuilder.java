@@ -0,0 +1,428 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A builder for KMarkdown content which writes everything into one buffer. <p>
+ * Unlike {@link KMarkdownHelper}, which creates a new string for each part,
+ *  this builder appends all parts to one {@link StringBuilder}, so large contents
+ *  (e.g. a leaderboard with many lines) can be built without creating many temporary strings. <p>
+ * The text provided to this builder will be escaped by {@link KMarkdownHelper#escape(String)},
+ *  so it will be shown as-is. Use {@link #raw(CharSequence)} to append the content which is already KMarkdown. <p>
+ * The styles can be nested by using the {@code begin} methods and {@link #end()}, for example:
+ * <pre>{@code
+ * String content = new KMarkdownBuilder()
+ *         .beginHyperLink("https://www.kookapp.cn")
+ *         .bold("KOOK")
+ *         .text(" official site")
+ *         .end()
+ *         .build();
+ * }</pre>
+ * This class is not thread-safe.
+ */
+public final class KMarkdownBuilder {
+    private final StringBuilder builder;
+    // The closing marks of the styles which are not ended yet, the last one is the innermost.
+    private String[] closings = new String[4];
+    private int depth;
+
+    public KMarkdownBuilder() {
+        this(256);
+    }
+
+    /**
+     * Create a builder with the provided initial capacity.
+     *
+     * @param capacity The initial capacity of the buffer, in characters
+     */
+    public KMarkdownBuilder(int capacity) {
+        Validate.isTrue(capacity >= 0, "Capacity cannot be negative.");
+        this.builder = new StringBuilder(capacity);
+    }
+
+    /**
+     * Append the text, all characters which have special meaning in KMarkdown will be escaped.
+     *
+     * @param text The text
+     */
+    public KMarkdownBuilder text(@NotNull CharSequence text) {
+        final int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (KMarkdownHelper.isSpecial(text.charAt(i))) {
+                builder.append(text, start, i).append('\\');
+                start = i;
+            }
+        }
+        builder.append(text, start, length);
+        return this;
+    }
+
+    /**
+     * Append the provided number as text.
+     *
+     * @param number The number
+     */
+    public KMarkdownBuilder text(long number) {
+        if (number < 0) {
+            builder.append('\\'); // the minus sign is special
+        }
+        builder.append(number);
+        return this;
+    }
+
+    /**
+     * Append the content without escaping, the content should be valid KMarkdown.
+     *
+     * @param content The content
+     */
+    public KMarkdownBuilder raw(@NotNull CharSequence content) {
+        builder.append(content);
+        return this;
+    }
+
+    /**
+     * Append a line break.
+     */
+    public KMarkdownBuilder newLine() {
+        builder.append('\n');
+        return this;
+    }
+
+    /**
+     * Append a divider line, it will be placed on its own line.
+     */
+    public KMarkdownBuilder line() {
+        if (builder.length() > 0 && builder.charAt(builder.length() - 1) != '\n') {
+            builder.append('\n');
+        }
+        builder.append("---\n");
+        return this;
+    }
+
+    /**
+     * Bold text.
+     *
+     * @param text Text Content
+     */
+    public KMarkdownBuilder bold(@NotNull CharSequence text) {
+        return beginBold().text(text).end();
+    }
+
+    /**
+     * Italic text.
+     *
+     * @param text Text Content
+     */
+    public KMarkdownBuilder italic(@NotNull CharSequence text) {
+        return beginItalic().text(text).end();
+    }
+
+    /**
+     * Bold italic text.
+     *
+     * @param text Text Content
+     */
+    public KMarkdownBuilder boldItalics(@NotNull CharSequence text) {
+        return begin("***", "***").text(text).end();
+    }
+
+    /**
+     * Strikethrough.
+     *
+     * @param text Text Content
+     */
+    public KMarkdownBuilder strikeThrough(@NotNull CharSequence text) {
+        return beginStrikeThrough().text(text).end();
+    }
+
+    /**
+     * Underline.
+     *
+     * @param text Text Content
+     */
+    public KMarkdownBuilder underLine(@NotNull CharSequence text) {
+        return beginUnderLine().text(text).end();
+    }
+
+    /**
+     * Spoiler.
+     *
+     * @param text Text Content
+     */
+    public KMarkdownBuilder spoiler(@NotNull CharSequence text) {
+        return beginSpoiler().text(text).end();
+    }
+
+    /**
+     * Links, only http/https links are allowed.
+     *
+     * @param text Content
+     * @param url  URL
+     */
+    public KMarkdownBuilder hyperLink(@NotNull CharSequence text, @NotNull String url) {
+        return beginHyperLink(url).text(text).end();
+    }
+
+    /**
+     * Color text. See {@link KMarkdownHelper#colorText(String, String)} for the possible themes.
+     *
+     * @param text  Text Content
+     * @param theme Theme, such as "success"
+     */
+    public KMarkdownBuilder colorText(@NotNull CharSequence text, @NotNull String theme) {
+        return beginColorText(theme).text(text).end();
+    }
+
+    /**
+     * Inline code.
+     *
+     * @param code Content
+     */
+    public KMarkdownBuilder inLineCode(@NotNull CharSequence code) {
+        KMarkdownHelper.escape(builder.append('`'), code, "`").append('`');
+        return this;
+    }
+
+    /**
+     * Code block, it will be placed on its own lines.
+     *
+     * @param codeLanguage Code language, such as "java"
+     * @param code         Content
+     */
+    public KMarkdownBuilder codeBlock(@NotNull String codeLanguage, @NotNull CharSequence code) {
+        if (builder.length() > 0 && builder.charAt(builder.length() - 1) != '\n') {
+            builder.append('\n');
+        }
+        builder.append("```").append(codeLanguage).append('\n');
+        KMarkdownHelper.escape(builder, code, "`").append("\n```\n");
+        return this;
+    }
+
+    /**
+     * Reference, the text will be escaped.
+     *
+     * @param text Content
+     */
+    public KMarkdownBuilder references(@NotNull CharSequence text) {
+        builder.append("> ");
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c == '\r' || c == '\n') {
+                if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                builder.append("\n\\u200d"); // same as KMarkdownHelper#references
+            } else {
+                if (KMarkdownHelper.isSpecial(c)) {
+                    builder.append('\\');
+                }
+                builder.append(c);
+            }
+        }
+        builder.append("\n\n");
+        return this;
+    }
+
+    /**
+     * Emoji. <br>
+     * Reference: <a href="https://img.kookapp.cn/assets/emoji.json">KOOK Emoji JSON</a>.
+     *
+     * @param emoji Emoji
+     */
+    public KMarkdownBuilder emoji(@NotNull String emoji) {
+        if (emoji.indexOf(':') != -1) {
+            throw new IllegalArgumentException("can't input a ':' in content!");
+        }
+        builder.append(':').append(emoji).append(':');
+        return this;
+    }
+
+    /**
+     * Guild emoji, you need to have the permission for using the guild emoji.
+     *
+     * @param name Emoji name
+     * @param id   Emoji ID
+     */
+    public KMarkdownBuilder guildEmoji(@NotNull String name, @NotNull String id) {
+        KMarkdownHelper.escape(builder.append("(emj)"), name, "()").append("(emj)[");
+        KMarkdownHelper.escape(builder, id, "[]").append(']');
+        return this;
+    }
+
+    /**
+     * Mention. See {@link KMarkdownHelper#met(String)} for the possible targets.
+     *
+     * @param target Mention target (user ID, "here", "all")
+     */
+    public KMarkdownBuilder met(@NotNull String target) {
+        builder.append("(met)").append(target).append("(met)");
+        return this;
+    }
+
+    /**
+     * Mention all users who have the provided role.
+     *
+     * @param id Role id
+     */
+    public KMarkdownBuilder metRole(int id) {
+        builder.append("(rol)").append(id).append("(rol)");
+        return this;
+    }
+
+    /**
+     * Mention Channel.
+     *
+     * @param id Channel ID
+     */
+    public KMarkdownBuilder metChannel(@NotNull String id) {
+        builder.append("(chn)").append(id).append("(chn)");
+        return this;
+    }
+
+    /**
+     * Begin bold text, call {@link #end()} to end it.
+     */
+    public KMarkdownBuilder beginBold() {
+        return begin("**", "**");
+    }
+
+    /**
+     * Begin italic text, call {@link #end()} to end it.
+     */
+    public KMarkdownBuilder beginItalic() {
+        return begin("*", "*");
+    }
+
+    /**
+     * Begin strikethrough, call {@link #end()} to end it.
+     */
+    public KMarkdownBuilder beginStrikeThrough() {
+        return begin("~~", "~~");
+    }
+
+    /**
+     * Begin underline, call {@link #end()} to end it.
+     */
+    public KMarkdownBuilder beginUnderLine() {
+        return begin("(ins)", "(ins)");
+    }
+
+    /**
+     * Begin spoiler, call {@link #end()} to end it.
+     */
+    public KMarkdownBuilder beginSpoiler() {
+        return begin("(spl)", "(spl)");
+    }
+
+    /**
+     * Begin a link, the content until {@link #end()} will be the text of the link.
+     *
+     * @param url URL, only http/https links are allowed
+     */
+    public KMarkdownBuilder beginHyperLink(@NotNull String url) {
+        if (!url.startsWith("http://") && !url.startsWith("https://")) {
+            throw new IllegalArgumentException("must be http or https link");
+        }
+        final StringBuilder closing = new StringBuilder(url.length() + 4).append("](");
+        return begin("[", KMarkdownHelper.escape(closing, url, "()").append(')').toString());
+    }
+
+    /**
+     * Begin color text, call {@link #end()} to end it.
+     *
+     * @param theme Theme, such as "success"
+     */
+    public KMarkdownBuilder beginColorText(@NotNull String theme) {
+        if (theme.indexOf('[') != -1 || theme.indexOf(']') != -1) {
+            throw new IllegalArgumentException("Theme cannot contain '[' or ']'.");
+        }
+        return begin("(font)", "(font)[" + theme + "]");
+    }
+
+    /**
+     * End the innermost style which was begun by a {@code begin} method.
+     *
+     * @throws IllegalStateException Thrown if there is no style to end
+     */
+    public KMarkdownBuilder end() {
+        if (depth == 0) {
+            throw new IllegalStateException("No style to end.");
+        }
+        builder.append(closings[--depth]);
+        closings[depth] = null;
+        return this;
+    }
+
+    /**
+     * Return the count of the styles which are not ended yet.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Return the length of the current content.
+     */
+    public int length() {
+        return builder.length();
+    }
+
+    /**
+     * Remove all content, so this builder can be used again.
+     */
+    public KMarkdownBuilder reset() {
+        builder.setLength(0);
+        Arrays.fill(closings, 0, depth, null);
+        depth = 0;
+        return this;
+    }
+
+    /**
+     * Return the built content.
+     *
+     * @throws IllegalStateException Thrown if some styles are not ended
+     */
+    public String build() {
+        if (depth != 0) {
+            throw new IllegalStateException("There are " + depth + " style(s) which are not ended.");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Return the current content, the styles which are not ended yet are not closed.
+     */
+    @Override
+    public String toString() {
+        return builder.toString();
+    }
+
+    private KMarkdownBuilder begin(String opening, String closing) {
+        if (depth == closings.length) {
+            closings = Arrays.copyOf(closings, depth << 1);
+        }
+        closings[depth++] = closing;
+        builder.append(opening);
+        return this;
+    }
+}
@@ -25,19 +25,60 @@ import org.jetbrains.annotations.NotNull;
  */
 
 public final class KMarkdownHelper {
+    // The characters which have special meaning in KMarkdown, they will be escaped by escape(String).
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static {
+        for (char c : "\\*~[]()>`-_:".toCharArray()) {
+            SPECIAL[c] = true;
+        }
+    }
 
     private KMarkdownHelper() {
     } // Cannot call constructor.
 
+    /**
+     * Escape all characters which have special meaning in KMarkdown,
+     *  so the provided text will be shown as-is.
+     *
+     * @param text Text Content
+     */
+    public static @NotNull String escape(@NotNull String text) {
+        int i = 0;
+        final int length = text.length();
+        while (i < length && !isSpecial(text.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return text; // nothing to escape
+        }
+        final StringBuilder builder = new StringBuilder(length + 16).append(text, 0, i);
+        for (; i < length; i++) {
+            final char c = text.charAt(i);
+            if (isSpecial(c)) {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Return true if the provided character has special meaning in KMarkdown.
+     *
+     * @param c The character
+     */
+    public static boolean isSpecial(char c) {
+        return c < SPECIAL.length && SPECIAL[c];
+    }
+
     /**
      * Bold text.
      *
      * @param bold Text Content
      */
     public static @NotNull String bold(@NotNull String bold) {
-        return "**" +
-                bold.replace("*", "\\*") +
-                "**";
+        return wrap("**", bold, "*", "**");
     }
 
     /**
@@ -46,9 +87,7 @@ public final class KMarkdownHelper {
      * @param italic Text Content
      */
     public static @NotNull String italic(@NotNull String italic) {
-        return "*" +
-                italic.replace("*", "\\*") +
-                "*";
+        return wrap("*", italic, "*", "*");
     }
 
     /**
@@ -57,9 +96,7 @@ public final class KMarkdownHelper {
      * @param boldItalics Text Content
      */
     public static @NotNull String boldItalics(@NotNull String boldItalics) {
-        return "***" +
-                boldItalics.replace("*", "\\*") +
-                "***";
+        return wrap("***", boldItalics, "*", "***");
     }
 
     /**
@@ -68,9 +105,7 @@ public final class KMarkdownHelper {
      * @param strikeThrough Text Content
      */
     public static @NotNull String strikeThrough(@NotNull String strikeThrough) {
-        return "~~" +
-                strikeThrough.replace("~", "\\~") +
-                "~~";
+        return wrap("~~", strikeThrough, "~", "~~");
     }
 
     /**
@@ -83,12 +118,9 @@ public final class KMarkdownHelper {
         if (!url.startsWith("http://") && !url.startsWith("https://")) {
             throw new IllegalArgumentException("must be http or https link");
         }
-        return "[" +
-                text.replace("[", "\\[").replace("]", "\\]") +
-                "]" +
-                "(" +
-                url.replace("(", "\\(").replace(")", "\\)") +
-                ")";
+        final StringBuilder builder = new StringBuilder(text.length() + url.length() + 8).append('[');
+        escape(builder, text, "[]").append("](");
+        return escape(builder, url, "()").append(')').toString();
     }
 
     /**
@@ -104,9 +136,8 @@ public final class KMarkdownHelper {
      * @param references Content
      */
     public static @NotNull String references(@NotNull String references) {
-        return "> " +
-                references.replace("\r\n", "\n").replace("\r", "\n").replace("\n", "\n\\u200d") +
-                "\n\n";
+        final StringBuilder builder = new StringBuilder(references.length() + 16).append("> ");
+        return appendQuoted(builder, references).append("\n\n").toString();
     }
 
     /**
@@ -115,9 +146,7 @@ public final class KMarkdownHelper {
      * @param underLine Content
      */
     public static @NotNull String underLine(@NotNull String underLine) {
-        return "(ins)" +
-                underLine.replace("(", "\\(").replace(")", "\\)") +
-                "(ins)";
+        return wrap("(ins)", underLine, "()", "(ins)");
     }
 
     /**
@@ -126,9 +155,7 @@ public final class KMarkdownHelper {
      * @param spoiler Content
      */
     public static @NotNull String spoiler(@NotNull String spoiler) {
-        return "(spl)" +
-                spoiler.replace("(", "\\(").replace(")", "\\)") +
-                "(spl)";
+        return wrap("(spl)", spoiler, "()", "(spl)");
     }
 
     /**
@@ -153,12 +180,9 @@ public final class KMarkdownHelper {
      * @param id   Emoji ID
      */
     public static @NotNull String guildEmoji(@NotNull String name, @NotNull String id) {
-        return "(emj)" +
-                name.replace("(", "\\(").replace(")", "\\)") +
-                "(emj)" +
-                "[" +
-                id.replace("[", "\\[").replace("]", "\\]") +
-                "]";
+        final StringBuilder builder = new StringBuilder(name.length() + id.length() + 16).append("(emj)");
+        escape(builder, name, "()").append("(emj)[");
+        return escape(builder, id, "[]").append(']').toString();
     }
 
     /**
@@ -203,9 +227,7 @@ public final class KMarkdownHelper {
      * @param inLineCode Content
      */
     public static @NotNull String inLineCode(@NotNull String inLineCode) {
-        return "`" +
-                inLineCode.replace("`", "\\`") +
-                "`";
+        return wrap("`", inLineCode, "`", "`");
     }
 
     /**
@@ -215,12 +237,9 @@ public final class KMarkdownHelper {
      * @param code         Content
      */
     public static @NotNull String codeBlock(@NotNull String codeLanguage, @NotNull String code) {
-        return "```" +
-                codeLanguage +
-                "\n" +
-                code.replace("`", "\\`") +
-                "\n" +
-                "```";
+        final StringBuilder builder = new StringBuilder(codeLanguage.length() + code.length() + 16)
+                .append("```").append(codeLanguage).append('\n');
+        return escape(builder, code, "`").append("\n```").toString();
     }
 
     /**
@@ -246,11 +265,44 @@ public final class KMarkdownHelper {
         if (theme.contains("[") || theme.contains("]")) {
             throw new IllegalArgumentException("Theme cannot contain '[' or ']'.");
         }
-        return "(font)" +
-                content.replace("(", "\\(").replace(")", "\\)") +
-                "(font)" +
-                "[" +
-                theme +
-                "]";
+        final StringBuilder builder = new StringBuilder(content.length() + theme.length() + 16).append("(font)");
+        return escape(builder, content, "()").append("(font)[").append(theme).append(']').toString();
+    }
+
+    // Build "open + escaped content + close" in one buffer.
+    private static String wrap(String open, String content, String chars, String close) {
+        final StringBuilder builder = new StringBuilder(open.length() + content.length() + close.length() + 8).append(open);
+        return escape(builder, content, chars).append(close).toString();
+    }
+
+    // Append the text to the builder, a backslash will be inserted before the provided characters.
+    static StringBuilder escape(StringBuilder builder, CharSequence text, String chars) {
+        final int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (chars.indexOf(c) != -1) {
+                builder.append(text, start, i).append('\\');
+                start = i;
+            }
+        }
+        return builder.append(text, start, length);
+    }
+
+    // Append the text to the builder, every line break will be continued by "\u200d" to stay inside the reference.
+    static StringBuilder appendQuoted(StringBuilder builder, CharSequence text) {
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c == '\r' || c == '\n') {
+                if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                builder.append("\n\\u200d");
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder;
     }
 }
@@ -0,0 +1,581 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A parser for KMarkdown content. <p>
+ * The parser reads the content once and reports what it found to a {@link Visitor},
+ *  no tree or string is created for the content. The parts of the content are reported as ranges
+ *  of the source {@link CharSequence}, so the visitor can decide whether to copy them. <p>
+ * The parser is lenient: the content which is not valid KMarkdown is reported as text,
+ *  and the styles which are not ended are ended at the end of the content. <p>
+ * Example for collecting the users mentioned by a message:
+ * <pre>{@code
+ * List<String> users = new ArrayList<>();
+ * KMarkdownParser.parse(content, new KMarkdownParser.Visitor() {
+ *     @Override
+ *     public void mention(KMarkdownParser.MentionType type, CharSequence source, int start, int end) {
+ *         if (type == KMarkdownParser.MentionType.USER) {
+ *             users.add(source.subSequence(start, end).toString());
+ *         }
+ *     }
+ * });
+ * }</pre>
+ */
+public final class KMarkdownParser {
+    // The delimiters whose last position in the content is cached, the index is the delimiter id.
+    private static final String[] DELIMITERS = {
+            "*", "**", "***", "~~", "`", "```", ")", "]", "(ins)", "(spl)", "(font)", "(emj)", "(met)", "(rol)", "(chn)"
+    };
+    private static final int STAR = 0, STAR2 = 1, STAR3 = 2, TILDE2 = 3, TICK = 4, TICK3 = 5, PAREN_END = 6,
+            BRACKET_END = 7, INS = 8, SPL = 9, FONT = 10, EMJ = 11, MET = 12, ROL = 13, CHN = 14;
+
+    private final CharSequence source;
+    private final Visitor visitor;
+    private final int length;
+    // The last position of each delimiter, computed when it is first needed. -2 means unknown.
+    private final int[] lastPositions = new int[DELIMITERS.length];
+    private Style[] styles = new Style[8];
+    private int depth;
+    private int pos;
+    private int textStart;
+    // The position of the next "](" which is not before the current position, or the length of the content.
+    private int nextLinkEnd = -1;
+
+    private KMarkdownParser(CharSequence source, Visitor visitor) {
+        this.source = source;
+        this.visitor = visitor;
+        this.length = source.length();
+        Arrays.fill(lastPositions, -2);
+    }
+
+    /**
+     * Parse the provided KMarkdown content.
+     *
+     * @param content The content
+     * @param visitor The visitor which will receive the parts of the content
+     */
+    public static void parse(@NotNull CharSequence content, @NotNull Visitor visitor) {
+        Validate.notNull(content);
+        Validate.notNull(visitor);
+        new KMarkdownParser(content, visitor).run();
+    }
+
+    /**
+     * Return the text shown to the users, without the styles, mentions and emojis. <p>
+     * If the content does not contain any KMarkdown syntax, the provided object itself is returned.
+     *
+     * @param content The content
+     */
+    public static @NotNull CharSequence plainText(@NotNull CharSequence content) {
+        final PlainTextCollector collector = new PlainTextCollector();
+        parse(content, collector);
+        if (collector.builder != null) {
+            return collector.builder;
+        }
+        if (collector.start == -1) {
+            return "";
+        }
+        if (collector.start == 0 && collector.end == content.length()) {
+            return content; // no KMarkdown syntax
+        }
+        return content.subSequence(collector.start, collector.end);
+    }
+
+    private void run() {
+        boolean lineStart = true;
+        while (pos < length) {
+            final char c = source.charAt(pos);
+            if (lineStart && startOfLine(c)) {
+                lineStart = false;
+                continue;
+            }
+            lineStart = c == '\n';
+            switch (c) {
+                case '\\':
+                    if (pos + 1 < length && KMarkdownHelper.isSpecial(source.charAt(pos + 1))) {
+                        flush();
+                        textStart = ++pos; // the escaped character is text
+                    }
+                    pos++;
+                    break;
+                case '*':
+                    stars();
+                    break;
+                case '~':
+                    if (startsWith("~~", pos)) {
+                        toggle(Style.STRIKE_THROUGH, TILDE2, 2);
+                    } else {
+                        pos++;
+                    }
+                    break;
+                case '`':
+                    code();
+                    break;
+                case '[':
+                    if (!isOpen(Style.LINK) && canEndLink(pos + 1)) {
+                        flush();
+                        push(Style.LINK);
+                        textStart = ++pos;
+                    } else {
+                        pos++;
+                    }
+                    break;
+                case ']':
+                    if (isOpen(Style.LINK) && startsWith("](", pos)) {
+                        endLink();
+                    } else {
+                        pos++;
+                    }
+                    break;
+                case '(':
+                    tag();
+                    break;
+                case ':':
+                    emoji();
+                    break;
+                case '\n':
+                    if (isOpen(Style.QUOTE) && startsWith("\n\n", pos)) {
+                        flush();
+                        textStart = pos;
+                        closeTo(Style.QUOTE, 0, 0);
+                    }
+                    pos++;
+                    break;
+                default:
+                    pos++;
+            }
+        }
+        flush();
+        while (depth > 0) {
+            visitor.endStyle(styles[--depth], source, pos, pos);
+        }
+    }
+
+    // Handle the syntax which is only valid at the start of a line, return true if it was handled.
+    private boolean startOfLine(char c) {
+        if (c == '>' && startsWith("> ", pos) && !isOpen(Style.QUOTE)) {
+            flush();
+            push(Style.QUOTE);
+            textStart = pos += 2;
+            return true;
+        }
+        if (c == '-' && startsWith("---", pos)) {
+            int end = pos + 3;
+            while (end < length && source.charAt(end) == '-') {
+                end++;
+            }
+            if (end == length || source.charAt(end) == '\n') {
+                flush();
+                visitor.divider();
+                textStart = pos = Math.min(end + 1, length);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void stars() {
+        int run = 1;
+        while (pos + run < length && source.charAt(pos + run) == '*') {
+            run++;
+        }
+        if (run >= 3) {
+            toggle(Style.BOLD_ITALIC, STAR3, 3);
+        } else if (run == 2) {
+            toggle(Style.BOLD, STAR2, 2);
+        } else {
+            toggle(Style.ITALIC, STAR, 1);
+        }
+    }
+
+    // End the style if it is open, otherwise begin it if it will be ended later.
+    private void toggle(Style style, int delimiter, int width) {
+        if (isOpen(style)) {
+            flush();
+            closeTo(style, pos, pos);
+            textStart = pos += width;
+        } else if (hasLater(delimiter, pos + width)) {
+            flush();
+            push(style);
+            textStart = pos += width;
+        } else {
+            pos += width;
+        }
+    }
+
+    private void code() {
+        final boolean block = startsWith("```", pos);
+        final int width = block ? 3 : 1;
+        if (!hasLater(block ? TICK3 : TICK, pos + width)) {
+            pos += width;
+            return;
+        }
+        flush();
+        int argStart = pos + width, argEnd = argStart;
+        pos += width;
+        if (block) {
+            while (pos < length && source.charAt(pos) != '\n') {
+                pos++;
+            }
+            argEnd = pos;
+            if (pos < length) {
+                pos++; // the line break after the language
+            }
+        }
+        final Style style = block ? Style.CODE_BLOCK : Style.CODE;
+        visitor.beginStyle(style);
+        textStart = pos;
+        boolean closed = false;
+        while (pos < length) {
+            final char c = source.charAt(pos);
+            if (c == '\\' && pos + 1 < length && source.charAt(pos + 1) == '`') {
+                flush();
+                textStart = ++pos;
+                pos++;
+            } else if (c == '`' && (!block || startsWith("```", pos))) {
+                int end = pos;
+                if (block && end > textStart && source.charAt(end - 1) == '\n') {
+                    end--; // the line break before the closing mark
+                }
+                if (end > textStart) {
+                    visitor.text(source, textStart, end);
+                }
+                pos += width;
+                closed = true;
+                break;
+            } else {
+                pos++;
+            }
+        }
+        if (!closed) {
+            flush();
+        }
+        visitor.endStyle(style, source, argStart, argEnd);
+        textStart = pos;
+    }
+
+    // Return true if a link which begins before the provided position can be ended, like "](url)".
+    private boolean canEndLink(int from) {
+        if (nextLinkEnd < from) {
+            nextLinkEnd = indexOf("](", from);
+        }
+        return nextLinkEnd < length && hasLater(PAREN_END, nextLinkEnd + 2);
+    }
+
+    private void endLink() {
+        final int urlStart = pos + 2;
+        int end = urlStart;
+        while (end < length && source.charAt(end) != ')') {
+            end += source.charAt(end) == '\\' ? 2 : 1;
+        }
+        if (end >= length) {
+            pos += 2; // the url is not ended (the parenthesis was escaped), "](" is text
+            return;
+        }
+        flush();
+        closeTo(Style.LINK, urlStart, end);
+        textStart = pos = end + 1;
+    }
+
+    private void tag() {
+        if (startsWith("(ins)", pos)) {
+            toggle(Style.UNDERLINE, INS, 5);
+        } else if (startsWith("(spl)", pos)) {
+            toggle(Style.SPOILER, SPL, 5);
+        } else if (startsWith("(font)", pos)) {
+            if (isOpen(Style.COLOR)) {
+                flush();
+                final int after = pos + 6;
+                int argStart = after, argEnd = after;
+                if (after < length && source.charAt(after) == '[' && hasLater(BRACKET_END, after + 1)) {
+                    argStart = after + 1;
+                    argEnd = indexOf(']', argStart);
+                }
+                closeTo(Style.COLOR, argStart, argEnd);
+                textStart = pos = argEnd == after ? after : argEnd + 1;
+            } else {
+                toggle(Style.COLOR, FONT, 6);
+            }
+        } else if (startsWith("(emj)", pos)) {
+            guildEmoji();
+        } else if (startsWith("(met)", pos)) {
+            mention(MentionType.USER, MET);
+        } else if (startsWith("(rol)", pos)) {
+            mention(MentionType.ROLE, ROL);
+        } else if (startsWith("(chn)", pos)) {
+            mention(MentionType.CHANNEL, CHN);
+        } else {
+            pos++;
+        }
+    }
+
+    private void mention(MentionType type, int delimiter) {
+        final int start = pos + 5;
+        if (!hasLater(delimiter, start)) {
+            pos += 5;
+            return;
+        }
+        final int end = indexOf(DELIMITERS[delimiter], start);
+        flush();
+        visitor.mention(type, source, start, end);
+        textStart = pos = end + 5;
+    }
+
+    private void guildEmoji() {
+        final int nameStart = pos + 5;
+        if (!hasLater(EMJ, nameStart)) {
+            pos += 5;
+            return;
+        }
+        final int nameEnd = indexOf("(emj)", nameStart);
+        int idStart = nameEnd + 5, idEnd = idStart;
+        if (idStart < length && source.charAt(idStart) == '[' && hasLater(BRACKET_END, idStart + 1)) {
+            idEnd = indexOf(']', ++idStart);
+        }
+        flush();
+        visitor.guildEmoji(source, nameStart, nameEnd, idStart, idEnd);
+        textStart = pos = idEnd == nameEnd + 5 ? idEnd : idEnd + 1;
+    }
+
+    private void emoji() {
+        if (pos > 0 && isEmojiChar(source.charAt(pos - 1))) {
+            pos++; // such as "key:value:", the colon is inside a word
+            return;
+        }
+        int end = pos + 1;
+        boolean digitsOnly = true;
+        while (end < length && isEmojiChar(source.charAt(end))) {
+            digitsOnly &= Character.isDigit(source.charAt(end));
+            end++;
+        }
+        if (end > pos + 1 && end < length && source.charAt(end) == ':'
+                // such as ":30:45", it is a part of a time, but ":100:" is an emoji
+                && !(digitsOnly && end + 1 < length && Character.isDigit(source.charAt(end + 1)))) {
+            flush();
+            visitor.emoji(source, pos + 1, end);
+            textStart = pos = end + 1;
+        } else {
+            pos = end; // the characters we have read can't start an emoji
+        }
+    }
+
+    private static boolean isEmojiChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-' || c == '+';
+    }
+
+    private void flush() {
+        if (pos > textStart) {
+            visitor.text(source, textStart, pos);
+        }
+        textStart = pos;
+    }
+
+    private void push(Style style) {
+        if (depth == styles.length) {
+            styles = Arrays.copyOf(styles, depth << 1);
+        }
+        styles[depth++] = style;
+        visitor.beginStyle(style);
+    }
+
+    private boolean isOpen(Style style) {
+        for (int i = depth - 1; i >= 0; i--) {
+            if (styles[i] == style) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // End the provided style, the styles inside it are ended too.
+    private void closeTo(Style style, int argStart, int argEnd) {
+        while (depth > 0) {
+            final Style top = styles[--depth];
+            if (top == style) {
+                visitor.endStyle(top, source, argStart, argEnd);
+                return;
+            }
+            visitor.endStyle(top, source, pos, pos);
+        }
+    }
+
+    // Return true if the delimiter appears at or after the provided position.
+    private boolean hasLater(int delimiter, int from) {
+        int last = lastPositions[delimiter];
+        if (last == -2) {
+            last = lastPositions[delimiter] = lastIndexOf(DELIMITERS[delimiter]);
+        }
+        return last >= from;
+    }
+
+    private boolean startsWith(String s, int at) {
+        if (at < 0 || at + s.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (source.charAt(at + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int lastIndexOf(String s) {
+        for (int i = length - s.length(); i >= 0; i--) {
+            if (startsWith(s, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Return the position of the string, or the length of the content if it was not found.
+    private int indexOf(String s, int from) {
+        for (int i = from; i + s.length() <= length; i++) {
+            if (startsWith(s, i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private int indexOf(char c, int from) {
+        for (int i = from; i < length; i++) {
+            if (source.charAt(i) == c) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Represents the styles in KMarkdown.
+     */
+    public enum Style {
+        BOLD,
+        ITALIC,
+        BOLD_ITALIC,
+        STRIKE_THROUGH,
+        UNDERLINE,
+        SPOILER,
+        /**
+         * Color text, the argument is the theme.
+         */
+        COLOR,
+        /**
+         * Link, the argument is the URL.
+         */
+        LINK,
+        QUOTE,
+        CODE,
+        /**
+         * Code block, the argument is the code language.
+         */
+        CODE_BLOCK
+    }
+
+    /**
+     * Represents the targets which can be mentioned.
+     */
+    public enum MentionType {
+        /**
+         * A user, or "all", or "here".
+         */
+        USER,
+        ROLE,
+        CHANNEL
+    }
+
+    /**
+     * Receives the parts of the content. <p>
+     * The ranges are positions in the source content, the start is inclusive and the end is exclusive.
+     * All methods do nothing by default.
+     */
+    public interface Visitor {
+
+        /**
+         * Called for the text shown to the users. The escape characters are not included.
+         */
+        default void text(CharSequence source, int start, int end) {
+        }
+
+        /**
+         * Called when a style begins.
+         */
+        default void beginStyle(Style style) {
+        }
+
+        /**
+         * Called when a style ends. <p>
+         * The argument range holds the URL of the link, the theme of the color text
+         *  or the language of the code block, it is empty for other styles.
+         * The argument is not unescaped.
+         */
+        default void endStyle(Style style, CharSequence source, int argStart, int argEnd) {
+        }
+
+        /**
+         * Called for a mention, the range holds the ID of the target.
+         */
+        default void mention(MentionType type, CharSequence source, int start, int end) {
+        }
+
+        /**
+         * Called for an emoji, such as {@code :smile:}. The range holds the name without colons.
+         */
+        default void emoji(CharSequence source, int start, int end) {
+        }
+
+        /**
+         * Called for a guild emoji.
+         */
+        default void guildEmoji(CharSequence source, int nameStart, int nameEnd, int idStart, int idEnd) {
+        }
+
+        /**
+         * Called for a divider line.
+         */
+        default void divider() {
+        }
+    }
+
+    // Collects the text ranges, the text is only copied if there are more than one range.
+    private static final class PlainTextCollector implements Visitor {
+        private StringBuilder builder;
+        private int start = -1;
+        private int end = -1;
+
+        @Override
+        public void text(CharSequence source, int start, int end) {
+            if (builder != null) {
+                builder.append(source, start, end);
+            } else if (this.start == -1) {
+                this.start = start;
+                this.end = end;
+            } else if (this.end == start) {
+                this.end = end; // continuous ranges
+            } else {
+                builder = new StringBuilder(source.length()).append(source, this.start, this.end).append(source, start, end);
+            }
+        }
+    }
+}
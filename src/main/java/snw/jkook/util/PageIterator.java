@@ -18,15 +18,21 @@ package snw.jkook.util;
 
 import org.jetbrains.annotations.Range;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents the iterator of something can have pages. <p>
  * Requests won't be started until {@link #hasNext()} got call.
  * Default page size is <code>50</code>, you can change it by using {@link #setPageSize(int)}. <p>
- * But <b>DO NOT</b> use {@link #setPageSize(int)} after you called {@link #hasNext()}, or unexpected thing may be happened. (e.g. Throwing an exception)
+ * But <b>DO NOT</b> use {@link #setPageSize(int)} after you called {@link #hasNext()}, or unexpected thing may be happened. (e.g. Throwing an exception) <p>
+ * If you want the next pages to be requested while you are processing the current one, see {@link #prefetch(int, Executor)}. <p>
+ * If you want to process the elements of all pages using a {@link Stream}, see {@link #stream(PageIterator)}.
  *
  * @param <E> The type of thing that will be provided
  */
@@ -48,6 +54,74 @@ public interface PageIterator<E> extends Iterator<E> {
      */
     Optional<Meta> getMeta();
 
+    /**
+     * Get an iterator which requests the following pages in background while the current page is being processed. <p>
+     * At most {@code depth} pages will be requested ahead of the page returned by the last {@link #next()} call,
+     * so a consumer which stops iterating early won't cause more than {@code depth} extra requests. <p>
+     * The requests are still performed one by one, in order, by the provided executor.
+     * The exceptions thrown by the requests are rethrown by {@link #hasNext()} and {@link #next()} of the result. <p>
+     * <b>DO NOT</b> use this iterator after calling this method, use the returned one instead.
+     *
+     * @param depth    The maximum count of the pages that can be requested in advance, must be at least 1
+     * @param executor The executor used to perform the requests (e.g. an I/O thread pool)
+     * @return The iterator which prefetches the pages
+     * @throws IllegalArgumentException Thrown if the depth is less than 1
+     */
+    default PageIterator<E> prefetch(int depth, Executor executor) throws IllegalArgumentException {
+        return new PrefetchingPageIterator<>(this, depth, executor);
+    }
+
+    /**
+     * Return true if this iterator supports {@link #getPage(int)}.
+     */
+    default boolean supportsRandomAccess() {
+        return false;
+    }
+
+    /**
+     * Request the page with the specified number directly, using the current page size. <p>
+     * This method won't change the position of this iterator,
+     *  and it may be called from multiple threads at the same time.
+     *
+     * @param page The page number, starts from <code>1</code> (the same as {@link Meta#getPage()})
+     * @return The content of the requested page
+     * @throws UnsupportedOperationException Thrown if {@link #supportsRandomAccess()} returns false
+     */
+    default E getPage(int page) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("getPage");
+    }
+
+    /**
+     * Get a sequential stream of the elements in all pages provided by the iterator. <p>
+     * The pages are requested only when the stream needs their elements.
+     * <b>DO NOT</b> use the iterator after calling this method.
+     *
+     * @param iterator The iterator which provides the pages
+     * @param <T>      The type of the elements in the pages
+     * @return The stream of the elements
+     */
+    static <T> Stream<T> stream(PageIterator<? extends Collection<? extends T>> iterator) {
+        return stream(iterator, false);
+    }
+
+    /**
+     * Get a stream of the elements in all pages provided by the iterator. <p>
+     * If the stream is parallel, and the iterator {@link #supportsRandomAccess() supports random access},
+     *  the first page will be requested using the iterator, then the remaining pages (known by
+     *  {@link Meta#getPageTotal()}) will be divided into disjoint ranges and requested in parallel using {@link #getPage(int)}.
+     * Otherwise, the pages are requested one by one using the iterator.
+     * <b>DO NOT</b> use the iterator after calling this method.
+     *
+     * @param iterator The iterator which provides the pages
+     * @param parallel True if you want a parallel stream
+     * @param <T>      The type of the elements in the pages
+     * @return The stream of the elements
+     */
+    static <T> Stream<T> stream(PageIterator<? extends Collection<? extends T>> iterator, boolean parallel) {
+        Validate.notNull(iterator, "The iterator cannot be null.");
+        return StreamSupport.stream(new PageSpliterator<>(iterator, parallel), parallel);
+    }
+
     // Unsupported operations are following:
 
     // Use the methods related to the "E" objects instead.
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The {@link Spliterator} used by {@link PageIterator#stream(PageIterator, boolean)}. <p>
+ * The elements of the pages are provided one by one, and the pages are requested only when they are needed. <p>
+ * At first, the pages are requested using the {@link PageIterator} itself.
+ * If the spliterator is asked to split after the first page was requested, the {@link Meta} of the first page
+ *  is known and the iterator supports {@link PageIterator#getPage(int)},
+ *  the remaining pages will be divided into disjoint ranges, and each range will be requested independently.
+ *
+ * @param <T> The type of the elements in the pages
+ */
+final class PageSpliterator<T> implements Spliterator<T> {
+    private static final int CHARACTERISTICS = ORDERED | NONNULL;
+
+    private final PageIterator<? extends Collection<? extends T>> source;
+    private final boolean splittable;
+    private Iterator<? extends T> current = Collections.emptyIterator();
+    // The range of the pages which should be requested using PageIterator#getPage(int).
+    // rangeMode is false until the first split, the source iterator is used before that.
+    private boolean rangeMode;
+    private int nextPage;
+    private int endPage; // exclusive
+
+    PageSpliterator(PageIterator<? extends Collection<? extends T>> source, boolean splittable) {
+        this.source = source;
+        this.splittable = splittable;
+    }
+
+    private PageSpliterator(PageIterator<? extends Collection<? extends T>> source, int nextPage, int endPage) {
+        this(source, true);
+        this.rangeMode = true;
+        this.nextPage = nextPage;
+        this.endPage = endPage;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        Validate.notNull(action);
+        while (!current.hasNext()) {
+            if (!loadNextPage()) {
+                return false;
+            }
+        }
+        action.accept(current.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        Validate.notNull(action);
+        do {
+            while (current.hasNext()) {
+                action.accept(current.next());
+            }
+        } while (loadNextPage());
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (!splittable || !source.supportsRandomAccess()) {
+            return null;
+        }
+        if (!rangeMode) {
+            if (!source.hasNext()) { // make sure the meta is available
+                return null;
+            }
+            final Collection<? extends T> first = source.next();
+            final Optional<Meta> meta = source.getMeta();
+            current = concat(current, first);
+            if (!meta.isPresent()) {
+                return null; // we can't know how many pages remain, continue with the source iterator
+            }
+            rangeMode = true;
+            nextPage = meta.get().getPage() + 1;
+            endPage = meta.get().getPageTotal() + 1;
+        }
+        final int remaining = endPage - nextPage;
+        if (remaining < 2) {
+            return null;
+        }
+        final int middle = nextPage + remaining / 2;
+        final PageSpliterator<T> prefix = new PageSpliterator<>(source, nextPage, middle);
+        prefix.current = current; // the already loaded elements come first
+        current = Collections.emptyIterator();
+        nextPage = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        if (!rangeMode) {
+            return Long.MAX_VALUE;
+        }
+        return (long) (endPage - nextPage) * source.getPageSize();
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    private boolean loadNextPage() {
+        if (rangeMode) {
+            if (nextPage >= endPage) {
+                return false;
+            }
+            current = source.getPage(nextPage++).iterator();
+            return true;
+        }
+        if (!source.hasNext()) {
+            return false;
+        }
+        current = source.next().iterator();
+        return true;
+    }
+
+    private static <T> Iterator<? extends T> concat(Iterator<? extends T> first, Collection<? extends T> second) {
+        if (!first.hasNext()) {
+            return second.iterator();
+        }
+        final Collection<T> result = new ArrayList<>();
+        first.forEachRemaining(result::add);
+        result.addAll(second);
+        return result.iterator();
+    }
+}
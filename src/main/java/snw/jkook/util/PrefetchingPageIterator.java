@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.util;
+
+import org.jetbrains.annotations.Range;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * The {@link PageIterator} returned by {@link PageIterator#prefetch(int, Executor)}. <p>
+ * The pages are requested from the wrapped iterator one by one on the provided executor,
+ * at most {@code depth} pages ahead of the consumer.
+ * The wrapped iterator is never accessed by two threads at the same time.
+ *
+ * @param <E> The type of thing that will be provided
+ */
+final class PrefetchingPageIterator<E> implements PageIterator<E> {
+    private final PageIterator<E> delegate;
+    private final int depth;
+    private final Executor executor;
+    private final Deque<CompletableFuture<Page<E>>> pending = new ArrayDeque<>();
+    private CompletableFuture<Page<E>> last; // the latest scheduled request, used for chaining
+    private boolean started;
+
+    PrefetchingPageIterator(PageIterator<E> delegate, int depth, Executor executor) {
+        Validate.notNull(delegate, "The delegate iterator cannot be null.");
+        Validate.notNull(executor, "The executor cannot be null.");
+        Validate.isTrue(depth >= 1, "The prefetch depth must be at least 1, got " + depth);
+        this.delegate = delegate;
+        this.depth = depth;
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !join(pending.peekFirst()).isEnd();
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final E result = join(pending.pollFirst()).value;
+        fill();
+        return result;
+    }
+
+    @Override
+    public int getPageSize() {
+        return delegate.getPageSize();
+    }
+
+    @Override
+    public void setPageSize(@Range(from = 50, to = 100) int size) {
+        Validate.isFalse(started, "The requests have already started, the page size cannot be changed now.");
+        delegate.setPageSize(size);
+    }
+
+    /**
+     * Get the meta returned in api. <p>
+     * Because of the prefetching, the returned meta describes the most recently <b>fetched</b> page,
+     * which may be ahead of the page returned by the last {@link #next()} call.
+     */
+    @Override
+    public Optional<Meta> getMeta() {
+        return delegate.getMeta();
+    }
+
+    @Override
+    public boolean supportsRandomAccess() {
+        return delegate.supportsRandomAccess();
+    }
+
+    @Override
+    public E getPage(int page) throws UnsupportedOperationException {
+        return delegate.getPage(page);
+    }
+
+    @Override
+    public PageIterator<E> prefetch(int depth, Executor executor) {
+        Validate.isFalse(started, "The requests have already started.");
+        return new PrefetchingPageIterator<>(delegate, depth, executor);
+    }
+
+    // Schedule the requests until there are "depth" pages in the queue or the end is known.
+    private void fill() {
+        started = true;
+        while (pending.size() < depth) {
+            if (last != null && last.isDone() && !last.isCompletedExceptionally() && last.join().isEnd()) {
+                return; // the end marker is still in the queue, no more requests are needed
+            }
+            final CompletableFuture<Page<E>> request = last == null
+                    ? CompletableFuture.supplyAsync(this::fetch, executor)
+                    : last.thenApplyAsync(previous -> previous.isEnd() ? previous : fetch(), executor);
+            pending.addLast(request);
+            last = request;
+        }
+    }
+
+    // Always called after the previous request finished, so the delegate is accessed sequentially.
+    private Page<E> fetch() {
+        return delegate.hasNext() ? new Page<>(delegate.next()) : Page.end();
+    }
+
+    private static <E> Page<E> join(CompletableFuture<Page<E>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        } catch (CancellationException e) {
+            throw new IllegalStateException("The page request was cancelled.", e);
+        }
+    }
+
+    private static final class Page<E> {
+        private static final Page<?> END = new Page<>(null);
+
+        private final E value;
+
+        Page(E value) {
+            this.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <E> Page<E> end() {
+            return (Page<E>) END;
+        }
+
+        boolean isEnd() {
+            return this == END;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2022 - 2024 JKook contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package snw.jkook.util;
+
+import snw.jkook.HttpAPI;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the files uploaded by {@link HttpAPI#uploadFile}, keyed by the content of the files. <p>
+ * The key of a file is the SHA-256 digest and the size of its content,
+ *  so uploading the same content again (even with another name) returns the cached URL without any request. <p>
+ * The entries are stored in an index file, so they are still available after restarting.
+ * New entries are appended to the index file immediately,
+ *  and the file is rewritten when it contains too many stale lines or this cache is closed. <p>
+ * If there are more entries than the limit, the least recently used entry will be removed.
+ * The entries older than the expiry time are removed too, because the remote files may be cleaned by KOOK. <p>
+ * Example:
+ * <blockquote><pre>
+ * {@code
+ *     UploadCache cache = new UploadCache(JKook.getHttpAPI(), getDataFolder().toPath().resolve("uploads.idx"), 1000, TimeUnit.DAYS.toMillis(7));
+ *     String url = cache.uploadFile("rank.png", renderedImage); // only requested if the image is new
+ * }
+ * </pre></blockquote>
+ * This class is thread-safe. But the same content may be uploaded more than once
+ *  if it is uploaded by multiple threads at the same time.
+ */
+public class UploadCache implements Closeable {
+    private static final char SEPARATOR = '\t';
+
+    private final HttpAPI api;
+    private final Path indexFile;
+    private final int maxEntries;
+    private final long expireAfter;
+    private final Map<String, CachedFile> entries;
+    private BufferedWriter journal;
+    private int journalLines;
+
+    /**
+     * Create a cache using the provided index file. The existing entries in the file will be loaded.
+     *
+     * @param api         The API used to upload the files if they are not cached
+     * @param indexFile   The index file, will be created if it does not exist
+     * @param maxEntries  The maximum count of the entries
+     * @param expireAfter The time after which an entry is considered as expired, in milliseconds.
+     *                    Use {@link Long#MAX_VALUE} if you don't want the entries to expire
+     * @throws UncheckedIOException Thrown if the index file cannot be read
+     */
+    public UploadCache(HttpAPI api, Path indexFile, int maxEntries, long expireAfter) throws UncheckedIOException {
+        Validate.notNull(api, "The API cannot be null.");
+        Validate.notNull(indexFile, "The index file cannot be null.");
+        Validate.isTrue(maxEntries > 0, "The maximum count of the entries must be positive.");
+        Validate.isTrue(expireAfter > 0, "The expiry time must be positive.");
+        this.api = api;
+        this.indexFile = indexFile;
+        this.maxEntries = maxEntries;
+        this.expireAfter = expireAfter;
+        this.entries = new LinkedHashMap<String, CachedFile>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedFile> eldest) {
+                return size() > UploadCache.this.maxEntries;
+            }
+        };
+        try {
+            load();
+            compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Upload a file to Kook server if its content is not cached.
+     *
+     * @param filename The name of the file (with the extension name)
+     * @param content  The content byte array of the file
+     * @return The URL string of the remote file
+     * @see HttpAPI#uploadFile(String, byte[])
+     */
+    public String uploadFile(String filename, byte[] content) {
+        final MessageDigest digest = newDigest();
+        digest.update(content);
+        final String key = key(digest, content.length);
+        final String cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return put(key, api.uploadFile(filename, content));
+    }
+
+    /**
+     * Upload a file to Kook server if its content is not cached. <p>
+     * The file is read twice if it is not cached, once for the digest, once for the upload.
+     * The file is passed to the API as a {@link FileChannel}, so it can be transferred from disk directly.
+     * If the size or the modification time of the file has changed since the digest was computed,
+     *  the file is still uploaded, but the result is not cached.
+     *
+     * @param path The path of the file to upload
+     * @return The URL string of the remote file
+     * @throws UncheckedIOException Thrown if the file cannot be read
+     * @see HttpAPI#uploadFile(Path)
+     */
+    public String uploadFile(Path path) throws UncheckedIOException {
+        final MessageDigest digest = newDigest();
+        final long size;
+        final FileTime modifiedAt;
+        try (InputStream stream = Files.newInputStream(path)) {
+            modifiedAt = Files.getLastModifiedTime(path);
+            final byte[] buffer = new byte[8192];
+            long read = 0;
+            int count;
+            while ((count = stream.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+                read += count;
+            }
+            size = read;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final String key = key(digest, size);
+        final String cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final String url = api.uploadFile(String.valueOf(path.getFileName()), channel, channel.size());
+            if (channel.size() != size || !modifiedAt.equals(Files.getLastModifiedTime(path))) {
+                return url; // modified after the digest was computed, the key may not match the uploaded content
+            }
+            return put(key, url);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Upload a file to Kook server if its content is not cached.
+     *
+     * @param file The file to upload
+     * @return The URL string of the remote file
+     * @throws UncheckedIOException Thrown if the file cannot be read
+     * @see HttpAPI#uploadFile(File)
+     */
+    public String uploadFile(File file) throws UncheckedIOException {
+        return uploadFile(file.toPath());
+    }
+
+    /**
+     * Get the count of the entries in this cache, including the expired entries which are not removed yet.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove all entries in this cache, including the entries stored in the index file.
+     *
+     * @throws UncheckedIOException Thrown if the index file cannot be written
+     */
+    public synchronized void clear() throws UncheckedIOException {
+        entries.clear();
+        try {
+            compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rewrite the index file using the entries in this cache and close it.
+     * The methods of this cache should not be used after calling this.
+     *
+     * @throws IOException Thrown if the index file cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        removeExpired();
+        compact();
+        journal.close();
+    }
+
+    private synchronized String get(String key) {
+        final CachedFile entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis(), expireAfter)) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.url;
+    }
+
+    private synchronized String put(String key, String url) {
+        Validate.isTrue(url.indexOf(SEPARATOR) == -1 && url.indexOf('\n') == -1 && url.indexOf('\r') == -1,
+                "Unexpected URL returned by the API: " + url);
+        final CachedFile entry = new CachedFile(url, System.currentTimeMillis());
+        entries.put(key, entry);
+        try {
+            journal.write(key + SEPARATOR + entry.createdAt + SEPARATOR + url);
+            journal.newLine();
+            journal.flush();
+            if (++journalLines > maxEntries * 2) {
+                removeExpired();
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return url;
+    }
+
+    private void load() throws IOException {
+        final long now = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final int first = line.indexOf(SEPARATOR);
+                final int second = first == -1 ? -1 : line.indexOf(SEPARATOR, first + 1);
+                if (second == -1) {
+                    continue; // broken line, maybe the application was killed during writing
+                }
+                final long createdAt;
+                try {
+                    createdAt = Long.parseLong(line.substring(first + 1, second));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                final CachedFile entry = new CachedFile(line.substring(second + 1), createdAt);
+                if (!entry.isExpired(now, expireAfter)) {
+                    entries.put(line.substring(0, first), entry); // later lines are newer
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+            // the first run, nothing to load
+        }
+    }
+
+    private void removeExpired() {
+        final long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now, expireAfter));
+    }
+
+    // Rewrite the index file atomically, then reopen the journal for appending.
+    private void compact() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        final Path parent = indexFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        final Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            // iterate from the least recently used entry, so the order is kept after reloading
+            for (Map.Entry<String, CachedFile> entry : entries.entrySet()) {
+                writer.write(entry.getKey() + SEPARATOR + entry.getValue().createdAt + SEPARATOR + entry.getValue().url);
+                writer.newLine();
+            }
+        }
+        try {
+            Files.move(temp, indexFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        journal = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        journalLines = entries.size();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e); // every Java platform is required to support SHA-256
+        }
+    }
+
+    private static String key(MessageDigest digest, long size) {
+        final byte[] hash = digest.digest();
+        final StringBuilder builder = new StringBuilder(hash.length * 2 + 21);
+        for (byte b : hash) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.append(':').append(size).toString();
+    }
+
+    private static final class CachedFile {
+        private final String url;
+        private final long createdAt;
+
+        CachedFile(String url, long createdAt) {
+            this.url = url;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now, long expireAfter) {
+            return now - createdAt >= expireAfter;
+        }
+    }
+}